@@ -1,11 +1,40 @@
 package com.cm6123.snl;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.List;
-import java.util.Set;
 
+/**
+ * A board of squares. Once built it is never changed, so one Board can be shared by many games.
+ */
 public final class Board {
+  /**
+   * Flag bit for the winning square.
+   */
+  private static final byte WINNING = 1;
+  /**
+   * Flag bit for a boost square.
+   */
+  private static final byte BOOST = 2;
+  /**
+   * Flag bit for a square already used by a snake, ladder or boost.
+   */
+  private static final byte SPECIAL = 4;
+  /**
+   * Largest turn table (in entries, squares times rolls) that will be built; bigger boards
+   * resolve turns as they go.  About 350,000 squares with a pair of six-sided dice.
+   */
+  public static final int TURN_TABLE_LIMIT = 1 << 22;
+  /**
+   * Boards with more squares than this only store their special squares.
+   */
+  private static final int SPARSE_THRESHOLD = 1 << 20;
+  /**
+   * Number of Position objects kept for a sparse board (must be a power of 2).
+   */
+  private static final int SPARSE_POSITION_CACHE = 1 << 12;
   /**
    * width of the board.
    */
@@ -13,15 +42,61 @@ public final class Board {
   /**
    * Flag to see if the 2nd option is enabled
    */
-  private final Boolean isWinningOnly;
+  private final boolean isWinningOnly;
+  /**
+   * The number of squares on the board.
+   */
+  private final int size;
+  /**
+   * Where a player ends up after landing on each square.
+   * Plain squares point to themselves, snakes down and ladders up.
+   * Null for a sparse board.
+   */
+  private final int[] destination;
+  /**
+   * Packed WINNING, BOOST and SPECIAL flags for each square.
+   * Null for a sparse board.
+   */
+  private final byte[] flags;
   /**
-   * internal set of Squares representing the board.
+   * For a sparse board, the destination of every snake head and ladder foot.
+   * Snake tails and ladder tops map to themselves so they count as used.
    */
-  private final List<Square> squares;
+  private final IntIntMap jumps;
   /**
-   * Internal set of special (snake or ladder) squares.
+   * For a sparse board, the boost squares.
    */
-  private final Set<Integer> specials;
+  private final BitSet boostBits;
+  /**
+   * Square objects for the GUI and database, only built when asked for.
+   */
+  private volatile List<Square> squares;
+  /**
+   * Cache of Position objects filled as squares are first used.
+   * One per square on a dense board, a fixed number of slots on a sparse one.
+   */
+  private final Position[] positions;
+  /**
+   * The heads of the snakes, in ascending order.
+   */
+  private final int[] snakeHeads;
+  /**
+   * The feet of the ladders, in ascending order.
+   */
+  private final int[] ladderFeet;
+  /**
+   * The boost squares, in ascending order.
+   */
+  private final int[] boostSquares;
+  /**
+   * Final square for each (square, roll) pair, stored at square * rolls + roll - 1.
+   * The number of rolls covered is the table length divided by the board size.
+   */
+  private volatile int[] turns;
+  /**
+   * The last LayoutReport worked out for this board, kept so games sharing the board share it too.
+   */
+  private volatile LayoutReport layoutReport;
 
   /**
    * @param aWidth - the width of the board (remember it is square)
@@ -37,18 +112,34 @@ public final class Board {
           final Integer[] boosts,
           final Boolean isWinningOnly) {
 
+    if ((long) aWidth * aWidth > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("The board is too big.");
+    }
     this.width = aWidth;
-    squares = new ArrayList<>();
-    for (int w = 0; w < aWidth; w++) {
-      for (int h = 0; h < aWidth; h++) {
-        squares.add(new Square(this, (w * aWidth) + h));
+    this.size = aWidth * aWidth;
+    if (size > SPARSE_THRESHOLD) {
+      destination = null;
+      flags = null;
+      jumps = new IntIntMap();
+      boostBits = new BitSet();
+      positions = new Position[SPARSE_POSITION_CACHE];
+    } else {
+      destination = new int[size];
+      for (int square = 0; square < size; square++) {
+        destination[square] = square;
       }
+      flags = new byte[size];
+      jumps = null;
+      boostBits = null;
+      positions = new Position[size];
+      setLastSquareAsWinner();
     }
 
-    setLastSquareAsWinner();
-    specials = new HashSet<>();
     this.isWinningOnly = isWinningOnly;
     addSnakesAndLaddersAndBoosts(snakes, ladders, boosts);
+    snakeHeads = sortedStarts(snakes);
+    ladderFeet = sortedStarts(ladders);
+    boostSquares = sortedSquares(boosts);
 
   }
   /**
@@ -93,14 +184,44 @@ public final class Board {
    * @return the size of the board = the number of squares.
    */
   public Integer size() {
-    return squares.size();
+    return size;
+  }
+
+  /**
+   * @return true if only the special squares are stored.
+   */
+  boolean isSparse() {
+    return destination == null;
   }
 
   /**
    * @return returns the starting square.
    */
   public Position start() {
-    return new Position(squares.get(0).getNumber());
+    return positionAt(0);
+  }
+
+  /**
+   * Get the shared Position object for a square, so moving doesn't need a new one.
+   * @param square - the number of the square
+   * @return the cached Position for that square.
+   */
+  public Position positionAt(final int square) {
+    checkOnBoard(square);
+    int slot = destination == null ? square & (SPARSE_POSITION_CACHE - 1) : square;
+    Position position = positions[slot];
+    if (position == null || position.get() != square) {
+      position = new Position(square);
+      positions[slot] = position;
+    }
+    return position;
+  }
+
+  /**
+   * @return the number of the last (winning) square.
+   */
+  int lastSquare() {
+    return size - 1;
   }
 
   /**
@@ -110,24 +231,141 @@ public final class Board {
     return width;
   }
 
+  /**
+   * @return true if a player must land exactly on the last square to win.
+   */
+  public boolean isWinningOnly() {
+    return isWinningOnly;
+  }
+
   /**
    * @param from the starting position.
    * @param roll the number of squares to move (i.e. the dice roll).
    * @return the new position after moving.
    */
   Position move(final Position from, final Integer roll) {
-    Integer tempMove = from.get() + roll;
+    return positionAt(move(from.get(), roll));
+  }
+
+  /**
+   * @param from the starting square.
+   * @param roll the number of squares to move.
+   * @return the square after moving.
+   */
+  int move(final int from, final int roll) {
+    int target = from + roll;
+    int last = size - 1;
+
+    if (target < last) {
+      return destinationOf(target);
+    } else if (target == last || !isWinningOnly) {
+      return last;
+    } else {
+      return from;
+    }
+  }
+
+  /**
+   * Work out where a whole turn ends: follow any chain of boost squares,
+   * then the snake or ladder, then the rule for rolling past the last square.
+   * @param from the square the turn starts on.
+   * @param roll the value rolled.
+   * @return the square the turn ends on.
+   */
+  int resolveTurn(final int from, final int roll) {
+    int last = size - 1;
+    int jump = roll;
+    while (from + jump < last && isBoostSquare(from + jump)) {
+      jump += roll;
+    }
+    return move(from, jump);
+  }
+
+  /**
+   * Get the square a turn ends on, using the turn table when the roll is covered by it.
+   * @param from the square the turn starts on.
+   * @param roll the value rolled.
+   * @return the square the turn ends on.
+   */
+  public int landing(final int from, final int roll) {
+    int[] table = turns;
+    if (table != null && roll >= 1) {
+      int rolls = table.length / size;
+      if (roll <= rolls) {
+        return table[from * rolls + roll - 1];
+      }
+    }
+    return resolveTurn(from, roll);
+  }
+
+  /**
+   * Build the turn table for rolls from 1 to maxRoll, unless one at least that wide exists.
+   * Boards too big for the table keep resolving each turn.
+   * @param maxRoll the largest roll the table should cover.
+   */
+  synchronized void prepareTurns(final int maxRoll) {
+    int[] table = turns;
+    if ((table != null && table.length / size >= maxRoll)
+            || maxRoll < 1
+            || (long) size * maxRoll > TURN_TABLE_LIMIT) {
+      return;
+    }
+    table = new int[size * maxRoll];
+    for (int from = 0; from < size; from++) {
+      for (int roll = 1; roll <= maxRoll; roll++) {
+        table[from * maxRoll + roll - 1] = resolveTurn(from, roll);
+      }
+    }
+    turns = table;
+  }
 
-    if (tempMove < squares.size()-1) {
-      return new Position(squares.get(tempMove).destination().getNumber());
-    }else if(tempMove == squares.size()-1) {
-      return new Position((squares.get(size() - 1)).getNumber());
-    }else{
-      if (isWinningOnly)
-        return from;
-      else
-        return new Position((squares.get(size() - 1)).getNumber());
+  /**
+   * @param maxRoll the largest roll the table should cover.
+   * @return true if a turn table for rolls up to maxRoll can be built: the squares
+   *     times maxRoll is at most TURN_TABLE_LIMIT.
+   */
+  public boolean hasTurnTableFor(final int maxRoll) {
+    return maxRoll >= 1 && (long) size * maxRoll <= TURN_TABLE_LIMIT;
+  }
+
+  /**
+   * Get a copy of the turn table for rolls from 1 to maxRoll, for code that plays
+   * many games outside Game.  The square a turn from square s with roll r ends on
+   * is at s * maxRoll + r - 1.
+   * @param maxRoll the largest roll the table should cover.
+   * @return a new table, which the caller may keep.
+   * @throws IllegalArgumentException - if the board has no room for the table, see hasTurnTableFor
+   */
+  public int[] turnTable(final int maxRoll) {
+    if (!hasTurnTableFor(maxRoll)) {
+      throw new IllegalArgumentException("No turn table for rolls up to " + maxRoll + " on this board.");
     }
+    prepareTurns(maxRoll);
+    int[] table = turns;
+    int rolls = table.length / size;
+    if (rolls == maxRoll) {
+      return table.clone();
+    }
+    int[] copy = new int[size * maxRoll];
+    for (int from = 0; from < size; from++) {
+      System.arraycopy(table, from * rolls, copy, from * maxRoll, maxRoll);
+    }
+    return copy;
+  }
+
+  /**
+   * @return the last LayoutReport worked out for this board, or null.
+   */
+  LayoutReport getLayoutReport() {
+    return layoutReport;
+  }
+
+  /**
+   * Keep a report for the next game on this board; it replaces any for other dice.
+   * @param report - a report on this board
+   */
+  void setLayoutReport(final LayoutReport report) {
+    layoutReport = report;
   }
 
   /**
@@ -135,8 +373,7 @@ public final class Board {
    * Landing on this square means that the player has won.
    */
   private void setLastSquareAsWinner() {
-    int lastSquare = this.width * this.width;
-    squares.get(lastSquare - 1).setAsWinningSquare();
+    flags[size - 1] |= WINNING;
   }
 
   /**
@@ -146,14 +383,42 @@ public final class Board {
    * @return true if the passed position is a winning position.
    */
   public boolean isWinningPosition(final Position aPosition) {
-    return squares.get(aPosition.get()).isWinningSquare();
+    int square = aPosition.get();
+    if (flags == null) {
+      return square == size - 1;
+    }
+    return (flags[square] & WINNING) != 0;
   }
 
   /**
    * @param aPosition - a position of a player
-   * @return true if the passed position is a winning position.
+   * @return true if the passed position is a boost position.
+   */
+  public boolean isBoostPosition(final Position aPosition) {
+    return isBoostSquare(aPosition.get());
+  }
+
+  /**
+   * @param square - the number of a square
+   * @return true if the square is a boost square.
+   */
+  boolean isBoostSquare(final int square) {
+    if (flags == null) {
+      return boostBits.get(square);
+    }
+    return (flags[square] & BOOST) != 0;
+  }
+
+  /**
+   * @param square - the number of a square
+   * @return where a player landing on the square ends up (the square itself unless it is a snake or ladder).
    */
-  public boolean isBoostPosition(final Position aPosition) { return squares.get(aPosition.get()).isBoostSquare(); }
+  public int destinationOf(final int square) {
+    if (destination == null) {
+      return jumps.get(square, square);
+    }
+    return destination[square];
+  }
 
   private void addSnakesAndLaddersAndBoosts(
           final Integer[] snakes,
@@ -183,8 +448,8 @@ public final class Board {
   }
 
 
-  private void addSnake(final Integer head, final Integer tail) {
-    if (specials.contains(head) || specials.contains(tail)) {
+  private void addSnake(final int head, final int tail) {
+    if (isSpecial(head) || isSpecial(tail)) {
       throw new IllegalStateException("Snakes and Ladders can't clash");
     }
 
@@ -197,17 +462,14 @@ public final class Board {
 
     }
 
-    specials.add(head);
-    specials.add(tail);
-
-    Square tailSquare = squares.get(tail);
-    SnakeSquare snake = new SnakeSquare(this, head, tailSquare);
-    this.setSquareAt(head, snake);
+    markSpecial(head);
+    markSpecial(tail);
+    setDestination(head, tail);
 
   }
 
-  private void addLadder(final Integer foot, final Integer top) {
-    if (specials.contains(foot) || specials.contains(top)) {
+  private void addLadder(final int foot, final int top) {
+    if (isSpecial(foot) || isSpecial(top)) {
       throw new IllegalStateException("Snakes and Ladders can't clash");
     }
 
@@ -220,31 +482,131 @@ public final class Board {
     }
 
 
-    specials.add(foot);
-    specials.add(top);
-    Square topSquare = squares.get(top);
-    Square ladder = new LadderSquare(this, foot, topSquare);
-    this.setSquareAt(foot, ladder);
+    markSpecial(foot);
+    markSpecial(top);
+    setDestination(foot, top);
 
   }
 
-  private void addBoost(final Integer boost) {
-    if (specials.contains(boost)) {
+  private void addBoost(final int boost) {
+    if (isSpecial(boost)) {
       throw new IllegalStateException("Boosts can't clash with Snakes and Ladders");
     }
-    specials.add(boost);
-    Square currentSquare = squares.get(boost);
-    currentSquare.setAsBoostSquare();
+    markSpecial(boost);
+    if (flags == null) {
+      boostBits.set(boost);
+    } else {
+      flags[boost] |= BOOST;
+    }
   }
 
-  private void setSquareAt(final Integer index, final Square newSquare) {
-    squares.set(index, newSquare);
+  /**
+   * @return the heads of the snakes in ascending order (a copy).
+   */
+  public int[] snakeHeads() {
+    return snakeHeads.clone();
   }
 
   /**
+   * @return the feet of the ladders in ascending order (a copy).
+   */
+  public int[] ladderFeet() {
+    return ladderFeet.clone();
+  }
+
+  /**
+   * @return the boost squares in ascending order (a copy).
+   */
+  public int[] boostSquares() {
+    return boostSquares.clone();
+  }
+
+  private static int[] sortedStarts(final Integer[] pairs) {
+    int[] starts = new int[pairs.length / 2];
+    for (int pair = 0; pair < starts.length; pair++) {
+      starts[pair] = pairs[pair * 2];
+    }
+    Arrays.sort(starts);
+    return starts;
+  }
+
+  private static int[] sortedSquares(final Integer[] someSquares) {
+    int[] sorted = new int[someSquares.length];
+    for (int square = 0; square < sorted.length; square++) {
+      sorted[square] = someSquares[square];
+    }
+    Arrays.sort(sorted);
+    return sorted;
+  }
+
+  private boolean isSpecial(final int square) {
+    checkOnBoard(square);
+    if (flags == null) {
+      return jumps.containsKey(square) || boostBits.get(square);
+    }
+    return (flags[square] & SPECIAL) != 0;
+  }
+
+  private void markSpecial(final int square) {
+    if (flags == null) {
+      jumps.put(square, square);
+    } else {
+      flags[square] |= SPECIAL;
+    }
+  }
+
+  private void setDestination(final int square, final int to) {
+    if (destination == null) {
+      jumps.put(square, to);
+    } else {
+      destination[square] = to;
+    }
+  }
+
+  private void checkOnBoard(final int square) {
+    if (square < 0 || square >= size) {
+      throw new IndexOutOfBoundsException("Square " + square + " is not on the board");
+    }
+  }
+
+  /**
+   * The Square objects are built from the destination table the first time they are needed.
+   * For a sparse board this creates an object per square, so it should be avoided on big boards.
    * @return - Gets the square list which will be useful for adding sqaures to database
    */
-  public List<Square> getSquares () {
-    return this.squares;
+  public List<Square> getSquares() {
+    List<Square> view = squares;
+    if (view == null) {
+      synchronized (this) {
+        view = squares;
+        if (view == null) {
+          view = Collections.unmodifiableList(buildSquares());
+          squares = view;
+        }
+      }
+    }
+    return view;
+  }
+
+  private List<Square> buildSquares() {
+    List<Square> view = new ArrayList<>(size);
+    for (int square = 0; square < size; square++) {
+      view.add(new Square(this, square));
+    }
+    for (int square = 0; square < size; square++) {
+      int to = destinationOf(square);
+      if (to < square) {
+        view.set(square, new SnakeSquare(this, square, view.get(to)));
+      } else if (to > square) {
+        view.set(square, new LadderSquare(this, square, view.get(to)));
+      }
+      if (square == size - 1) {
+        view.get(square).setAsWinningSquare();
+      }
+      if (isBoostSquare(square)) {
+        view.get(square).setAsBoostSquare();
+      }
+    }
+    return view;
   }
 }
@@ -0,0 +1,221 @@
+package com.cm6123.snl;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded cache of Boards keyed by their layout, so games with the same
+ * layout share one read-only Board instead of building their own.  The cache is
+ * bounded by weight, the squares times the rolls each board's turn table covers,
+ * so a few big boards can't pin their turn tables for the life of the process.
+ */
+final class BoardTemplates {
+
+  /**
+   * How many layouts are kept before the least recently used is dropped.
+   */
+  private static final int CAPACITY = 64;
+  /**
+   * The most weight (squares times turn table width) kept, about 64 MB of turn tables.
+   */
+  private static final long MAX_WEIGHT = 1L << 24;
+  /**
+   * Boards heavier than this are built for each game rather than cached.
+   */
+  private static final long MAX_CACHED_WEIGHT = MAX_WEIGHT / 4;
+
+  /**
+   * The cached boards, in least recently used order.
+   */
+  private static final Map<Layout, Template> TEMPLATES = new LinkedHashMap<>(CAPACITY, 0.75f, true);
+  /**
+   * The total weight of the cached boards.
+   */
+  private static long totalWeight;
+
+  /**
+   * Default constructor does nothing.
+   */
+  private BoardTemplates() {
+    //do nothing
+  }
+
+  /**
+   * Get the shared Board for a layout, building it the first time it is asked for.
+   * Boards too heavy to cache are built afresh every time.
+   *
+   * @param width - the width of the board
+   * @param snakes - the snakes in pairs (head, tail, head, tail)
+   * @param ladders - the ladders in pairs (foot, top, foot, top)
+   * @param boosts - the boosts
+   * @param isWinningOnly - the flag that decides that Q2 is enabled or not
+   * @param maxRoll - the largest roll the board's turn table should cover
+   * @return a Board that must not be changed, as other games may be using it.
+   */
+  static Board get(final Integer width,
+                   final Integer[] snakes,
+                   final Integer[] ladders,
+                   final Integer[] boosts,
+                   final Boolean isWinningOnly,
+                   final Integer maxRoll) {
+    long weight = weightOf((long) width * width, maxRoll);
+    if (weight > MAX_CACHED_WEIGHT) {
+      Board board = new Board(width, snakes, ladders, boosts, isWinningOnly);
+      board.prepareTurns(maxRoll);
+      return board;
+    }
+    Layout layout = new Layout(width, snakes, ladders, boosts, isWinningOnly);
+    Template template;
+    synchronized (TEMPLATES) {
+      template = TEMPLATES.get(layout);
+    }
+    if (template == null) {
+      // built outside the lock; if two threads race, the first one stored wins
+      Template built = new Template(new Board(width, snakes, ladders, boosts, isWinningOnly));
+      synchronized (TEMPLATES) {
+        template = TEMPLATES.putIfAbsent(layout, built);
+        if (template == null) {
+          template = built;
+        }
+      }
+    }
+    template.board.prepareTurns(maxRoll);
+    synchronized (TEMPLATES) {
+      if (weight > template.weight && TEMPLATES.get(layout) == template) {
+        totalWeight += weight - template.weight;
+        template.weight = weight;
+      }
+      trim();
+    }
+    return template.board;
+  }
+
+  /**
+   * @param squares - the squares on a board
+   * @param maxRoll - the widest turn table asked for
+   * @return the board's weight: a turn table entry per square and roll, plus the square itself.
+   */
+  private static long weightOf(final long squares, final int maxRoll) {
+    return squares * (Math.max(maxRoll, 0) + 1L);
+  }
+
+  /**
+   * Drop the least recently used boards until the cache is within its limits.
+   * Must be called holding the lock on TEMPLATES.
+   */
+  private static void trim() {
+    Iterator<Template> eldest = TEMPLATES.values().iterator();
+    while ((totalWeight > MAX_WEIGHT || TEMPLATES.size() > CAPACITY) && eldest.hasNext()) {
+      totalWeight -= eldest.next().weight;
+      eldest.remove();
+    }
+  }
+
+  /**
+   * @return the total weight of the cached boards.
+   */
+  static long cachedWeight() {
+    synchronized (TEMPLATES) {
+      return totalWeight;
+    }
+  }
+
+  /**
+   * Forget every cached board.
+   */
+  static void clear() {
+    synchronized (TEMPLATES) {
+      TEMPLATES.clear();
+      totalWeight = 0;
+    }
+  }
+
+  /**
+   * A cached board and the weight it was counted at.
+   */
+  private static final class Template {
+    /**
+     * The shared board.
+     */
+    private final Board board;
+    /**
+     * Its weight, which grows when a wider turn table is asked for.
+     */
+    private long weight;
+
+    Template(final Board aBoard) {
+      board = aBoard;
+    }
+  }
+
+  /**
+   * The fingerprint of a board: everything that decides its squares.
+   */
+  private static final class Layout {
+    /**
+     * The width of the board.
+     */
+    private final int width;
+    /**
+     * The winning only flag.
+     */
+    private final boolean isWinningOnly;
+    /**
+     * The snakes in pairs.
+     */
+    private final Integer[] snakes;
+    /**
+     * The ladders in pairs.
+     */
+    private final Integer[] ladders;
+    /**
+     * The boost squares.
+     */
+    private final Integer[] boosts;
+    /**
+     * The hash, worked out once.
+     */
+    private final int hash;
+
+    Layout(final Integer aWidth,
+           final Integer[] someSnakes,
+           final Integer[] someLadders,
+           final Integer[] someBoosts,
+           final Boolean winningOnly) {
+      width = aWidth;
+      isWinningOnly = winningOnly;
+      snakes = someSnakes.clone();
+      ladders = someLadders.clone();
+      boosts = someBoosts.clone();
+      int h = Integer.hashCode(width);
+      h = 31 * h + Boolean.hashCode(isWinningOnly);
+      h = 31 * h + Arrays.hashCode(snakes);
+      h = 31 * h + Arrays.hashCode(ladders);
+      h = 31 * h + Arrays.hashCode(boosts);
+      hash = h;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Layout layout = (Layout) o;
+      return width == layout.width
+              && isWinningOnly == layout.isWinningOnly
+              && Arrays.equals(snakes, layout.snakes)
+              && Arrays.equals(ladders, layout.ladders)
+              && Arrays.equals(boosts, layout.boosts);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+}
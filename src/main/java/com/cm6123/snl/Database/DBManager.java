@@ -5,6 +5,7 @@ import org.javatuples.Pair;
 import org.javatuples.Triplet;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 
@@ -222,6 +223,7 @@ public class DBManager {
 
     /**
      * Finally a fucntion that would utilize all the previous functions and save the whole game.
+     * Only the winning square and the special squares are stored, the rest are plain.
      * @param game - the game object to be saved in the database
      */
     public int saveGame(Game game)throws SQLException{
@@ -232,15 +234,22 @@ public class DBManager {
         for (Triplet<Integer, Integer, String> t : players) {
             addGamePlayer(gameID, t.getValue0(), t.getValue1(), t.getValue2());
         }
-        List<Square> squares = game.getBoard().getSquares();
-        for (Square sq: squares){
-            addBoardSquare(boardID, sq.getNumber(), sq.isWinningSquare(), sq.isBoostSquare());
-            if (sq.getClass() == SnakeSquare.class){
-                addSnakeSquare(boardID, sq.getNumber(), ((SnakeSquare)sq).destination().getNumber());
-            }
-            if (sq.getClass() == LadderSquare.class){
-                addLadderSquare(boardID, sq.getNumber(), ((LadderSquare)sq).destination().getNumber());
-            }
+        Board board = game.getBoard();
+        int lastSquare = board.size() - 1;
+        int[] boosts = board.boostSquares();
+        if (board.destinationOf(lastSquare) == lastSquare && Arrays.binarySearch(boosts, lastSquare) < 0) {
+            addBoardSquare(boardID, lastSquare, true, false);
+        }
+        for (int boost : boosts) {
+            addBoardSquare(boardID, boost, boost == lastSquare, true);
+        }
+        for (int head : board.snakeHeads()) {
+            addBoardSquare(boardID, head, head == lastSquare, false);
+            addSnakeSquare(boardID, head, board.destinationOf(head));
+        }
+        for (int foot : board.ladderFeet()) {
+            addBoardSquare(boardID, foot, false, false);
+            addLadderSquare(boardID, foot, board.destinationOf(foot));
         }
         return gameID;
     }
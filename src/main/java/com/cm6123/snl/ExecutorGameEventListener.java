@@ -0,0 +1,70 @@
+package com.cm6123.snl;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Passes each event on to another listener through an Executor,
+ * so slow listeners don't hold up the game.
+ */
+final class ExecutorGameEventListener implements GameEventListener {
+
+  /**
+   * The listener the events are for.
+   */
+  private final GameEventListener listener;
+  /**
+   * Runs the deliveries.
+   */
+  private final Executor executor;
+
+  /**
+   * @param aListener - the listener the events are for
+   * @param anExecutor - runs the deliveries
+   */
+  ExecutorGameEventListener(final GameEventListener aListener, final Executor anExecutor) {
+    listener = aListener;
+    executor = anExecutor;
+  }
+
+  /**
+   * @return the listener the events are for.
+   */
+  GameEventListener getListener() {
+    return listener;
+  }
+
+  @Override
+  public void playerMoved(final int player, final int from, final int to) {
+    executor.execute(() -> listener.playerMoved(player, from, to));
+  }
+
+  @Override
+  public void boostTaken(final int player, final int square) {
+    executor.execute(() -> listener.boostTaken(player, square));
+  }
+
+  @Override
+  public void snakeTaken(final int player, final int head, final int tail) {
+    executor.execute(() -> listener.snakeTaken(player, head, tail));
+  }
+
+  @Override
+  public void ladderTaken(final int player, final int foot, final int top) {
+    executor.execute(() -> listener.ladderTaken(player, foot, top));
+  }
+
+  @Override
+  public void turnPassed(final int fromPlayer, final int toPlayer) {
+    executor.execute(() -> listener.turnPassed(fromPlayer, toPlayer));
+  }
+
+  @Override
+  public void gameWon(final int player) {
+    executor.execute(() -> listener.gameWon(player));
+  }
+
+  @Override
+  public void stateRestored() {
+    executor.execute(listener::stateRestored);
+  }
+}
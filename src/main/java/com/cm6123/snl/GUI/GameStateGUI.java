@@ -1,12 +1,10 @@
 package com.cm6123.snl.GUI;
 
 import com.cm6123.snl.*;
-import org.javatuples.Pair;
 import org.javatuples.Triplet;
 import javax.swing.*;
 import javax.swing.table.TableModel;
 import java.awt.*;
-import java.util.ArrayList;
 import java.util.List;
 
 public class GameStateGUI extends JPanel {
@@ -44,6 +42,17 @@ public class GameStateGUI extends JPanel {
         super(null);
         currentGame = game;
         initView();
+        currentGame.addListener(new GameEventListener() {
+            @Override
+            public void playerMoved(int player, int from, int to) {
+                playerTable.getModel().setValueAt(to + 1 + "", player, 1);
+            }
+
+            @Override
+            public void stateRestored() {
+                changePositions(currentGame.getAllPlayerPositions());
+            }
+        });
     }
 
     /**
@@ -80,10 +89,10 @@ public class GameStateGUI extends JPanel {
         playerTable.setBounds(10, 50, 150, players.size() * 16);
         add(playerTable);
 
-        List<Square> squares = getCurrentGame().getBoard().getSquares();
-        String[][] snakes = getSnakes(squares);
-        String[][] ladders = getLadders(squares);
-        Integer[] boosts = getBoosts(squares);
+        Board board = getCurrentGame().getBoard();
+        String[][] snakes = getSnakes(board);
+        String[][] ladders = getLadders(board);
+        Integer[] boosts = getBoosts(board);
 
         if (snakes.length != 0) {
             JLabel snakesHeading = new JLabel("Snake Positions");
@@ -122,61 +131,48 @@ public class GameStateGUI extends JPanel {
 
     /**
      * Function to extract all the snake positions
-     * @param squares - List of squares from the board
+     * @param board - the board being played on
      * @return - 2d array represting the snake positions, ready to be placed in the table
      */
-    private String[][] getSnakes(List<Square> squares) {
-        List<Pair<Integer, Integer>> snakesList = new ArrayList<>();
-        for (Square sq: squares){
-            if (sq instanceof SnakeSquare){
-                SnakeSquare snakeSquare = (SnakeSquare)sq;
-                int a = snakeSquare.getNumber(), b = snakeSquare.destination().getNumber();
-                snakesList.add(new Pair<>(a, b));
-            }
-        }
-        String[][] snakes = new String[snakesList.size()][2];
-        int i = 0;
-        for (Pair<Integer, Integer> snake: snakesList){
-            snakes[i++] = new String[]{snake.getValue0()+1+"", snake.getValue1()+1+""};
-        }
-        return snakes;
+    private String[][] getSnakes(Board board) {
+        return getJumps(board, board.snakeHeads());
     }
 
     /**
-     * Function to get the ladder positions from list of squares
-     * @param squares - List of squares form board
+     * Function to get the ladder positions from the board
+     * @param board - the board being played on
      * @return - 2d array of strings representing ladder top and bottom, ready to be placed into the table.
      */
-    private String[][] getLadders(List<Square> squares) {
-        List<Pair<Integer, Integer>> laddersList = new ArrayList<>();
-        for (Square sq: squares){
-            if (sq instanceof LadderSquare){
-                LadderSquare ladderSquare = (LadderSquare)sq;
-                int a = ladderSquare.getNumber(), b = ladderSquare.destination().getNumber();
-                laddersList.add(new Pair<>(a, b));
-            }
-        }
-        String[][] ladders = new String[laddersList.size()][2];
-        int i = 0;
-        for (Pair<Integer, Integer> ladder: laddersList){
-            ladders[i++] = new String[]{ladder.getValue0()+1+"", ladder.getValue1()+1+""};
+    private String[][] getLadders(Board board) {
+        return getJumps(board, board.ladderFeet());
+    }
+
+    /**
+     * Pair up the start and end of each snake or ladder as 1-based labels
+     * @param board - the board being played on
+     * @param starts - the snake heads or ladder feet
+     * @return - 2d array of from-to labels, ready to be placed into the table.
+     */
+    private String[][] getJumps(Board board, int[] starts) {
+        String[][] jumps = new String[starts.length][2];
+        for (int i = 0; i < starts.length; i++) {
+            jumps[i] = new String[]{starts[i] + 1 + "", board.destinationOf(starts[i]) + 1 + ""};
         }
-        return ladders;
+        return jumps;
     }
 
     /**
      * Get the boost square positions
-     * @param squares - List of squares from the board.
+     * @param board - the board being played on
      * @return - List of integers denoting positions of boost squares
      */
-    private Integer[] getBoosts(List<Square> squares) {
-        List<Integer> boostList = new ArrayList<>();
-        for (Square sq: squares){
-            if (sq.isBoostSquare()){
-                boostList.add(sq.getNumber()+1);
-            }
+    private Integer[] getBoosts(Board board) {
+        int[] squares = board.boostSquares();
+        Integer[] boosts = new Integer[squares.length];
+        for (int i = 0; i < squares.length; i++) {
+            boosts[i] = squares[i] + 1;
         }
-        return boostList.toArray(new Integer[0]);
+        return boosts;
     }
 
     /**
@@ -195,13 +191,13 @@ public class GameStateGUI extends JPanel {
         if (currentGame.isGameOver()){
             throw new IllegalStateException("Can't move a player once the game is over.");
         }
+        // the table is updated by the listener added in the constructor
         currentGame.moveCurrentPlayer(dice);
-        changePositions(currentGame.getAllPlayerPositions());
         return currentGame.getCurrentPlayer().getColour().toString();
     }
 
     /**
-     * Updates player positions after each dice roll
+     * Updates all player positions, when the whole game state has been replaced
      * @param positions, A triplet denoting the player positions
      */
     private void changePositions(List<Triplet<Integer, Integer, String>> positions) {
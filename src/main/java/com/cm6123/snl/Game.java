@@ -2,11 +2,21 @@ package com.cm6123.snl;
 
 import org.javatuples.Triplet;
 
+import com.cm6123.snl.dice.DiceSet;
+
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.function.IntSupplier;
 
 public final class Game {
 
+  /**
+   * Shared empty listener array, so a game without listeners allocates nothing.
+   */
+  private static final GameEventListener[] NO_LISTENERS = new GameEventListener[0];
+
   /**
    * The board on which the game is being played.
    */
@@ -15,6 +25,22 @@ public final class Game {
    * The list of players playing the game.
    */
   private PlayerList players;
+  /**
+   * Packs the game state for snapshots, created the first time it is needed.
+   */
+  private GameStateCodec stateCodec;
+  /**
+   * The record of rolls for undo, redo and replay; null unless enabled.
+   */
+  private MoveJournal journal;
+  /**
+   * The listeners told about each move, replaced (never changed) when one is added or removed.
+   */
+  private GameEventListener[] listeners = NO_LISTENERS;
+  /**
+   * What the layout allows with the game's dice; null unless the builder was asked to check it.
+   */
+  private LayoutReport layoutReport;
 
 
   Game(final Integer playerCount,
@@ -25,7 +51,7 @@ public final class Game {
   ) {
 
     board = new Board(width, snakes, ladders, boosts, false);
-    players = new PlayerList(playerCount, board.start());
+    players = new PlayerList(playerCount, board);
 
   }
   Game(final Integer playerCount,
@@ -37,22 +63,18 @@ public final class Game {
   ) {
 
     board = new Board(width, snakes, ladders, boosts, isWinningOnly);
-    players = new PlayerList(playerCount, board.start());
+    players = new PlayerList(playerCount, board);
 
   }
 
-  Game(final Integer playerCount,
-       final Integer width,
-       final Integer[] snakes,
-       final Integer[] ladders,
-       final Integer[] boosts,
-       final Boolean isWinningOnly,
+  Game(final Board aBoard,
+       final Integer playerCount,
        final Integer currentPlayer,
        final Integer[] initialPositions
   ) throws IllegalStateException{
 
-    board = new Board(width, snakes, ladders, boosts, isWinningOnly);
-    players = new PlayerList(playerCount, board.start(), currentPlayer, initialPositions);
+    board = aBoard;
+    players = new PlayerList(playerCount, board, currentPlayer, initialPositions);
   }
 
 
@@ -82,24 +104,178 @@ public final class Game {
     if (isGameOver()) {
       throw new IllegalStateException("Can't move a player once the game is over.");
     } else {
-      /**
-       * First projecting the final position of the player, because of boost squares
-       * and then moving to that position.
-       */
-      Player currentPlayer = getCurrentPlayer();
-      Position startPos = currentPlayer.getPosition();
-      int start = startPos.get();
-      int jump = squares;
-      while (start+jump < board.size()-1 && board.isBoostPosition(new Position(start + jump))){
-        jump += squares;
+      if (journal != null) {
+        recordMove(squares);
+      }
+      applyMove(squares);
+    }
+  }
+
+  /**
+   * Play a run of rolls, stopping early if someone wins.
+   * @param rolls the rolls to play, in order.
+   * @return the winner (if any), how many rolls were played and where everyone finished.
+   */
+  public GameResult moveMany(final int[] rolls) {
+    if (isGameOver()) {
+      throw new IllegalStateException("Can't move a player once the game is over.");
+    }
+    int turns = 0;
+    boolean carryOn = true;
+    while (carryOn && turns < rolls.length) {
+      int roll = rolls[turns++];
+      if (journal != null) {
+        recordMove(roll);
+      }
+      carryOn = applyMove(roll);
+    }
+    return result(turns);
+  }
+
+  /**
+   * Keep rolling until someone wins.
+   * With the winning only rule some boards never finish, so prefer the version with a turn limit.
+   * @param rolls where the rolls come from.
+   * @return the winner, how many turns were played and where everyone finished.
+   */
+  public GameResult playUntilEnd(final IntSupplier rolls) {
+    return playUntilEnd(rolls, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Keep rolling until someone wins or the turn limit is reached.
+   * @param rolls where the rolls come from.
+   * @param maxTurns the most turns to play.
+   * @return the winner (if any), how many turns were played and where everyone finished.
+   */
+  public GameResult playUntilEnd(final IntSupplier rolls, final int maxTurns) {
+    if (isGameOver()) {
+      throw new IllegalStateException("Can't move a player once the game is over.");
+    }
+    int turns = 0;
+    boolean carryOn = true;
+    while (carryOn && turns < maxTurns) {
+      int roll = rolls.getAsInt();
+      turns++;
+      if (journal != null) {
+        recordMove(roll);
+      }
+      carryOn = applyMove(roll);
+    }
+    return result(turns);
+  }
+
+  /**
+   * Keep rolling a set of dice until someone wins or the turn limit is reached.
+   * @param dice the dice to roll.
+   * @param maxTurns the most turns to play.
+   * @return the winner (if any), how many turns were played and where everyone finished.
+   */
+  public GameResult playUntilEnd(final DiceSet dice, final int maxTurns) {
+    return playUntilEnd(dice::rollInt, maxTurns);
+  }
+
+  /**
+   * Record a roll in the journal before it is applied.
+   * @param roll the roll about to be applied.
+   */
+  private void recordMove(final int roll) {
+    journal.checkRoll(roll);
+    journal.truncate();
+    if (journal.needsKeyframe()) {
+      journal.addKeyframe(snapshotStateWide());
+    }
+    journal.record(roll);
+  }
+
+  /**
+   * Move the current player and pass the turn on, telling any listeners.
+   * @param roll the number of squares to move by.
+   * @return true if the game carries on.
+   */
+  private boolean applyMove(final int roll) {
+    if (listeners.length == 0) {
+      return step(roll);
+    }
+    return stepAndNotify(roll);
+  }
+
+  /**
+   * Move the current player and pass the turn on, following the same steps
+   * as the board's turn table so each boost, snake and ladder can be reported.
+   * @param roll the number of squares to move by.
+   * @return true if the game carries on.
+   */
+  private boolean stepAndNotify(final int roll) {
+    GameEventListener[] toldOf = listeners;
+    int current = players.getCurrentPlayerIndex();
+    int from = players.positionOf(current);
+    int last = board.lastSquare();
+    int jump = roll;
+    while (from + jump < last && board.isBoostSquare(from + jump)) {
+      for (GameEventListener listener : toldOf) {
+        listener.boostTaken(current, from + jump);
+      }
+      jump += roll;
+    }
+    int target = from + jump;
+    int destination = target < last ? board.destinationOf(target) : target;
+    if (destination < target) {
+      for (GameEventListener listener : toldOf) {
+        listener.snakeTaken(current, target, destination);
+      }
+    } else if (destination > target) {
+      for (GameEventListener listener : toldOf) {
+        listener.ladderTaken(current, target, destination);
       }
-      Position newPosition = board.move(startPos, jump);
-      currentPlayer.moveTo(newPosition);
+    }
 
-      if (gameContinues()) {
-        players.next();
+    boolean carryOn = step(roll);
+    int to = players.positionOf(current);
+    for (GameEventListener listener : toldOf) {
+      listener.playerMoved(current, from, to);
+    }
+    if (carryOn) {
+      int next = players.getCurrentPlayerIndex();
+      for (GameEventListener listener : toldOf) {
+        listener.turnPassed(current, next);
+      }
+    } else {
+      for (GameEventListener listener : toldOf) {
+        listener.gameWon(current);
       }
     }
+    return carryOn;
+  }
+
+  /**
+   * Move the current player and pass the turn on, without the journal or listeners.
+   * @param roll the number of squares to move by.
+   * @return true if the game carries on.
+   */
+  private boolean step(final int roll) {
+    /**
+     * The board has already worked out where each roll ends,
+     * including boost squares, snakes, ladders and overshooting.
+     */
+    int current = players.getCurrentPlayerIndex();
+    int to = board.landing(players.positionOf(current), roll);
+    players.moveTo(current, to);
+
+    if (to >= board.lastSquare()) {
+      return false;
+    }
+    players.next();
+    return true;
+  }
+
+  private GameResult result(final int turns) {
+    int[] positions = new int[players.size()];
+    for (int player = 0; player < positions.length; player++) {
+      positions[player] = players.positionOf(player);
+    }
+    int winner = isGameOver() ? players.getCurrentPlayerIndex() : -1;
+    return new GameResult(winner, turns, positions);
   }
 
   /**
@@ -111,6 +287,15 @@ public final class Game {
     return players.get(index).getPlayerData();
   }
 
+  /**
+   * Get the square a player is on, without creating a PlayerData object.
+   * @param index - which player
+   * @return the number of the square the player is on.
+   */
+  public int positionOf(final int index) {
+    return players.positionOf(index);
+  }
+
   /**
    * Get a read-only object for the current player.
    * @return a PlayerData object containing read-only data about the current player.
@@ -132,7 +317,7 @@ public final class Game {
    * @return true if the game is over.
    */
   public Boolean isGameOver() {
-    return getCurrentPlayer().getPosition().get() >= board.size() - 1;//board.isWinningPosition(getCurrentPlayer().getPosition());
+    return players.positionOf(players.getCurrentPlayerIndex()) >= board.lastSquare();
   }
 
   /**
@@ -156,6 +341,37 @@ public final class Game {
     return board;
   }
 
+  /**
+   * Make a new game on the same (shared, read-only) board, with the players where they
+   * are now and the same current player.  Only reads this game, so several threads can
+   * copy one game nobody is playing.  Listeners and the journal aren't copied.
+   * @return the copy.
+   */
+  public Game copy() {
+    Game copy = new Game(board, players.size(), 1, new Integer[0]);
+    for (int player = 0; player < players.size(); player++) {
+      copy.players.moveTo(player, players.positionOf(player));
+    }
+    copy.players.setCurrentPlayer(players.getCurrentPlayerIndex());
+    copy.layoutReport = layoutReport;
+    return copy;
+  }
+
+  /**
+   * Get the report on the board's layout made when the game was built.
+   * @return the report, or null if the builder wasn't asked to check the layout.
+   */
+  public LayoutReport getLayoutReport() {
+    return layoutReport;
+  }
+
+  /**
+   * @param aReport - the report on the board's layout
+   */
+  void setLayoutReport(final LayoutReport aReport) {
+    layoutReport = aReport;
+  }
+
   /**
    * shoudl the game carry on?
    * @return true if the game is not over.
@@ -182,7 +398,7 @@ public final class Game {
     ArrayList<Triplet<Integer, Integer, String>> allPlayers = new ArrayList<>();
     for (int i = 0; i < playerSize; i++){
       Player p = players.get(i);
-      int position = p.getPosition().get();
+      int position = players.positionOf(i);
       String colour = p.getColour().toString();
       Triplet<Integer, Integer, String> q = new Triplet<>(i, position, colour);
       allPlayers.add(q);
@@ -197,4 +413,211 @@ public final class Game {
     return players.getCurrentPlayerIndex();
   }
 
+  /**
+   * @return the codec used to pack this game's state.
+   */
+  public GameStateCodec getStateCodec() {
+    if (stateCodec == null) {
+      stateCodec = new GameStateCodec(board.size(), players.size());
+    }
+    return stateCodec;
+  }
+
+  /**
+   * Pack the player positions and the current player into a single long.
+   * @return the packed state.
+   * @throws IllegalStateException - if the board is too big for one long, use snapshotStateWide
+   */
+  public long snapshotState() {
+    GameStateCodec codec = getStateCodec();
+    long state = codec.withCurrentPlayer(0L, players.getCurrentPlayerIndex());
+    for (int player = 0; player < players.size(); player++) {
+      state = codec.withPosition(state, player, players.positionOf(player));
+    }
+    return state;
+  }
+
+  /**
+   * Put the game back into a state from snapshotState.
+   * @param state - the packed state
+   * @throws IllegalStateException - if the board is too big for one long, use the wide form
+   */
+  public void restoreState(final long state) {
+    restore(state);
+    restartJournal();
+    notifyRestored();
+  }
+
+  private void restore(final long state) {
+    GameStateCodec codec = getStateCodec();
+    int current = codec.currentPlayer(state);
+    for (int player = 0; player < players.size(); player++) {
+      codec.check(current, player, codec.positionOf(state, player));
+    }
+    for (int player = 0; player < players.size(); player++) {
+      players.moveTo(player, codec.positionOf(state, player));
+    }
+    players.setCurrentPlayer(current);
+  }
+
+  /**
+   * Pack the player positions and the current player into as many longs as needed.
+   * @return the packed state.
+   */
+  public long[] snapshotStateWide() {
+    GameStateCodec codec = getStateCodec();
+    long[] state = new long[codec.wideLength()];
+    codec.setCurrentPlayer(state, players.getCurrentPlayerIndex());
+    for (int player = 0; player < players.size(); player++) {
+      codec.setPosition(state, player, players.positionOf(player));
+    }
+    return state;
+  }
+
+  /**
+   * Put the game back into a state from snapshotStateWide.
+   * @param state - the packed state
+   */
+  public void restoreState(final long[] state) {
+    restore(state);
+    restartJournal();
+    notifyRestored();
+  }
+
+  private void restore(final long[] state) {
+    GameStateCodec codec = getStateCodec();
+    int current = codec.currentPlayer(state);
+    for (int player = 0; player < players.size(); player++) {
+      codec.check(current, player, codec.positionOf(state, player));
+    }
+    for (int player = 0; player < players.size(); player++) {
+      players.moveTo(player, codec.positionOf(state, player));
+    }
+    players.setCurrentPlayer(current);
+  }
+
+  /**
+   * Start recording rolls so they can be undone, redone and replayed.
+   * Any earlier record is dropped and the current state becomes turn 0.
+   * @param maxRoll - the largest roll that will be made, e.g. 6 for one six-sided dice
+   */
+  public void enableJournal(final Integer maxRoll) {
+    journal = new MoveJournal(maxRoll, snapshotStateWide());
+  }
+
+  /**
+   * @return true if rolls are being recorded.
+   */
+  public boolean isJournalEnabled() {
+    return journal != null;
+  }
+
+  /**
+   * @return the number of recorded turns currently applied (0 if there is no journal).
+   */
+  public int getTurn() {
+    return journal == null ? 0 : journal.cursor();
+  }
+
+  /**
+   * @return true if there is a turn to undo.
+   */
+  public boolean canUndo() {
+    return journal != null && journal.cursor() > 0;
+  }
+
+  /**
+   * @return true if there is an undone turn to redo.
+   */
+  public boolean canRedo() {
+    return journal != null && journal.cursor() < journal.length();
+  }
+
+  /**
+   * Take back the last turn.
+   */
+  public void undo() {
+    if (!canUndo()) {
+      throw new IllegalStateException("There is no turn to undo.");
+    }
+    replayTo(journal.cursor() - 1);
+  }
+
+  /**
+   * Make the last undone turn again.
+   */
+  public void redo() {
+    if (!canRedo()) {
+      throw new IllegalStateException("There is no turn to redo.");
+    }
+    applyMove(journal.rollAt(journal.cursor()));
+    journal.moveCursor(journal.cursor() + 1);
+  }
+
+  /**
+   * Rebuild the game as it was after a recorded turn.
+   * Undone turns are kept, so redo still works afterwards.
+   * @param turn - how many recorded turns should be applied
+   */
+  public void replayTo(final int turn) {
+    if (journal == null) {
+      throw new IllegalStateException("The journal is not enabled.");
+    }
+    if (turn < 0 || turn > journal.length()) {
+      throw new IllegalArgumentException("Turn " + turn + " has not been played.");
+    }
+    long[] state = new long[getStateCodec().wideLength()];
+    int from = journal.keyframeBefore(turn, state);
+    restore(state);
+    for (int t = from; t < turn; t++) {
+      step(journal.rollAt(t));
+    }
+    journal.moveCursor(turn);
+    notifyRestored();
+  }
+
+  private void restartJournal() {
+    if (journal != null) {
+      journal = new MoveJournal(journal.maxRoll(), snapshotStateWide());
+    }
+  }
+
+  /**
+   * Tell a listener about each move as it happens, on the thread making the move.
+   * @param listener - the listener to add
+   */
+  public void addListener(final GameEventListener listener) {
+    GameEventListener[] more = Arrays.copyOf(listeners, listeners.length + 1);
+    more[listeners.length] = listener;
+    listeners = more;
+  }
+
+  /**
+   * Tell a listener about each move, delivering the events through an Executor.
+   * @param listener - the listener to add
+   * @param executor - runs each delivery, e.g. SwingUtilities::invokeLater
+   */
+  public void addListener(final GameEventListener listener, final Executor executor) {
+    addListener(new ExecutorGameEventListener(listener, executor));
+  }
+
+  /**
+   * Stop telling a listener about moves.
+   * @param listener - the listener to remove
+   */
+  public void removeListener(final GameEventListener listener) {
+    GameEventListener[] fewer = Arrays.stream(listeners)
+            .filter(l -> l != listener
+                    && !(l instanceof ExecutorGameEventListener
+                    && ((ExecutorGameEventListener) l).getListener() == listener))
+            .toArray(GameEventListener[]::new);
+    listeners = fewer.length == 0 ? NO_LISTENERS : fewer;
+  }
+
+  private void notifyRestored() {
+    for (GameEventListener listener : listeners) {
+      listener.stateRestored();
+    }
+  }
+
 }
@@ -24,6 +24,10 @@ public final class GameBuilder {
    * The maximum number of players is determined by the available number of colours.
    */
   private static final Integer MAXIMUM_NUMBER_OF_PLAYERS = Player.PlayerColour.values().length;
+  /**
+   * If not specified, turns are precomputed for rolls up to 12 (a pair of six-sided dice).
+   */
+  private static final Integer DEFAULT_MAX_ROLL = 12;
 
   /**
    * An array of integers that, in pairs, specifies the ladders.
@@ -58,6 +62,18 @@ public final class GameBuilder {
    * The array denoting the starting positions of each player. Useful when loading the game.
    */
   private Integer[] initialPositions;
+  /**
+   * The largest roll the board's turn table should cover.
+   */
+  private Integer maxRoll;
+  /**
+   * How many faces on each Dice the layout is checked with, or null for no check.
+   */
+  private Integer checkFaces;
+  /**
+   * How many Dice the layout is checked with.
+   */
+  private Integer checkDice;
 
   /**
    * Initialise the Game building process.
@@ -71,15 +87,49 @@ public final class GameBuilder {
     isWinningOnly = false;
     initialPositions = new Integer[0];
     currentPlayer = 1;
+    maxRoll = DEFAULT_MAX_ROLL;
+  }
+
+  /**
+   * Make a separate builder with the same settings, so one can be changed without the other.
+   * @return the copy.
+   */
+  public GameBuilder copy() {
+    GameBuilder copy = new GameBuilder();
+    copy.snakes = snakes.clone();
+    copy.ladders = ladders.clone();
+    copy.boosts = boosts.clone();
+    copy.tempBoardSize = tempBoardSize;
+    copy.tempPlayers = tempPlayers;
+    copy.isWinningOnly = isWinningOnly;
+    copy.currentPlayer = currentPlayer;
+    copy.initialPositions = initialPositions.clone();
+    copy.maxRoll = maxRoll;
+    copy.checkFaces = checkFaces;
+    copy.checkDice = checkDice;
+    return copy;
   }
 
   /**
    * Use the set temporary variables to build a game.
+   * Games with the same board layout share one read-only Board.
+   * If the layout is being checked, the game gets a LayoutReport, and is refused if
+   * some player might never finish.  The report is only worked out again when the board or dice change.
    *
    * @return a Game object configured which board, snakes, ladders and players.
    */
   public Game build() {
-    Game theGame = new Game(tempPlayers, tempBoardSize, snakes, ladders, boosts, isWinningOnly, currentPlayer, initialPositions);
+    Board board = BoardTemplates.get(tempBoardSize, snakes, ladders, boosts, isWinningOnly, maxRoll);
+    Game theGame = new Game(board, tempPlayers, currentPlayer, initialPositions);
+    if (checkFaces != null) {
+      LayoutReport report = LayoutReport.of(board, checkFaces, checkDice);
+      for (int player = 0; player < theGame.numberOfPlayers(); player++) {
+        if (!report.finishesSurelyFrom(theGame.positionOf(player))) {
+          throw new IllegalStateException("The game might never finish: " + report);
+        }
+      }
+      theGame.setLayoutReport(report);
+    }
     return theGame;
   }
 
@@ -185,4 +235,35 @@ public final class GameBuilder {
     return this;
   }
 
+  /**
+   * Set the largest roll the dice can give, so every turn up to it is worked out when the game is built.
+   * Larger rolls are still allowed, they are just worked out as they happen.
+   * @param aMaxRoll - the largest possible roll, e.g. faces * number of dice
+   * @return the configured GameBuilder
+   */
+  public GameBuilder withMaxRoll(final Integer aMaxRoll) {
+    if (aMaxRoll < 1) {
+      throw new IllegalArgumentException("The largest roll must be at least 1.");
+    }
+    this.maxRoll = aMaxRoll;
+    return this;
+  }
+
+  /**
+   * Check the layout when the game is built, for the dice it will be played with:
+   * a layout some player might never finish on is refused, and any other gets a
+   * LayoutReport the game keeps.
+   * @param faces - how many faces on each Dice
+   * @param dice - how many Dice are rolled each turn
+   * @return the configured GameBuilder
+   */
+  public GameBuilder withLayoutCheck(final Integer faces, final Integer dice) {
+    if (faces < 1 || dice < 1) {
+      throw new IllegalArgumentException("A roll needs at least one Dice with at least one face.");
+    }
+    this.checkFaces = faces;
+    this.checkDice = dice;
+    return this;
+  }
+
 }
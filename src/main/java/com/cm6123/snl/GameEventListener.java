@@ -0,0 +1,65 @@
+package com.cm6123.snl;
+
+/**
+ * Told about what happens in a Game as it happens, so it doesn't have to
+ * poll the whole game state after every roll.
+ * Players and squares are 0-based indexes. Every method does nothing by default.
+ */
+public interface GameEventListener {
+
+  /**
+   * A player has finished their move.
+   * @param player - the index of the player
+   * @param from - the square they started on
+   * @param to - the square they ended on
+   */
+  default void playerMoved(int player, int from, int to) {
+  }
+
+  /**
+   * A player landed on a boost square and carries on by the same roll again.
+   * @param player - the index of the player
+   * @param square - the boost square
+   */
+  default void boostTaken(int player, int square) {
+  }
+
+  /**
+   * A player landed on the head of a snake.
+   * @param player - the index of the player
+   * @param head - the head of the snake
+   * @param tail - the tail of the snake
+   */
+  default void snakeTaken(int player, int head, int tail) {
+  }
+
+  /**
+   * A player landed at the foot of a ladder.
+   * @param player - the index of the player
+   * @param foot - the foot of the ladder
+   * @param top - the top of the ladder
+   */
+  default void ladderTaken(int player, int foot, int top) {
+  }
+
+  /**
+   * The turn has passed to the next player.
+   * @param fromPlayer - the player who just moved
+   * @param toPlayer - the player who moves next
+   */
+  default void turnPassed(int fromPlayer, int toPlayer) {
+  }
+
+  /**
+   * A player has reached the last square.
+   * @param player - the index of the winning player
+   */
+  default void gameWon(int player) {
+  }
+
+  /**
+   * The whole game state was replaced (restore, undo or replay), so anything may have changed.
+   */
+  default void stateRestored() {
+  }
+}
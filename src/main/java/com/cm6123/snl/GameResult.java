@@ -0,0 +1,78 @@
+package com.cm6123.snl;
+
+import java.util.Arrays;
+
+/**
+ * The outcome of playing a run of turns with Game.moveMany or Game.playUntilEnd.
+ */
+public final class GameResult {
+
+  /**
+   * The index of the winning player, or -1 if the game isn't over.
+   */
+  private final int winner;
+  /**
+   * How many turns were played.
+   */
+  private final int turns;
+  /**
+   * The square each player finished on.
+   */
+  private final int[] positions;
+
+  /**
+   * @param aWinner - the index of the winning player, or -1
+   * @param turnCount - how many turns were played
+   * @param finalPositions - the square each player finished on
+   */
+  GameResult(final int aWinner, final int turnCount, final int[] finalPositions) {
+    winner = aWinner;
+    turns = turnCount;
+    positions = finalPositions;
+  }
+
+  /**
+   * @return true if someone won.
+   */
+  public boolean isFinished() {
+    return winner >= 0;
+  }
+
+  /**
+   * @return the index of the winning player, or -1 if the game isn't over.
+   */
+  public int getWinner() {
+    return winner;
+  }
+
+  /**
+   * @return how many turns were played.
+   */
+  public int getTurns() {
+    return turns;
+  }
+
+  /**
+   * @param player - the index of a player
+   * @return the square the player finished on.
+   */
+  public int getFinalPosition(final int player) {
+    return positions[player];
+  }
+
+  /**
+   * @return the number of players.
+   */
+  public int numberOfPlayers() {
+    return positions.length;
+  }
+
+  @Override
+  public String toString() {
+    return "GameResult{"
+            + "winner=" + winner
+            + ", turns=" + turns
+            + ", positions=" + Arrays.toString(positions)
+            + '}';
+  }
+}
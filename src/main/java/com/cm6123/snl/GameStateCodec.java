@@ -0,0 +1,202 @@
+package com.cm6123.snl;
+
+/**
+ * Packs the state of a game (each player's square and the current player)
+ * into a single long, or into a few longs when the board is too big for one.
+ * The current player takes the lowest 3 bits and each player's square follows,
+ * using just enough bits for the number of squares on the board.
+ */
+public final class GameStateCodec {
+
+  /**
+   * Bits used for the current player index (up to 8 players).
+   */
+  private static final int CURRENT_PLAYER_BITS = 3;
+
+  /**
+   * The number of players in the game.
+   */
+  private final int players;
+  /**
+   * The number of squares on the board.
+   */
+  private final int squares;
+  /**
+   * Bits used for each player's square.
+   */
+  private final int bitsPerPosition;
+  /**
+   * Mask with the lowest bitsPerPosition bits set.
+   */
+  private final long positionMask;
+
+  /**
+   * Create a codec for a board size and number of players.
+   *
+   * @param boardSize - the number of squares on the board
+   * @param playerCount - the number of players
+   */
+  public GameStateCodec(final int boardSize, final int playerCount) {
+    if (playerCount < 1 || playerCount > (1 << CURRENT_PLAYER_BITS)) {
+      throw new IllegalArgumentException("Can't pack the state of " + playerCount + " players.");
+    }
+    players = playerCount;
+    squares = boardSize;
+    bitsPerPosition = Math.max(1, Integer.SIZE - Integer.numberOfLeadingZeros(boardSize - 1));
+    positionMask = (1L << bitsPerPosition) - 1;
+  }
+
+  /**
+   * @return the number of bits a packed state takes.
+   */
+  public int bits() {
+    return CURRENT_PLAYER_BITS + players * bitsPerPosition;
+  }
+
+  /**
+   * @return true if a state fits in a single long.
+   */
+  public boolean fitsInLong() {
+    return bits() <= Long.SIZE;
+  }
+
+  /**
+   * @return how many longs the wide form of a state takes.
+   */
+  public int wideLength() {
+    return (bits() + Long.SIZE - 1) / Long.SIZE;
+  }
+
+  /**
+   * @param state - a packed state
+   * @param currentPlayer - the index of the current player
+   * @return the state with the current player replaced.
+   */
+  public long withCurrentPlayer(final long state, final int currentPlayer) {
+    checkFitsInLong();
+    long mask = (1L << CURRENT_PLAYER_BITS) - 1;
+    return (state & ~mask) | (currentPlayer & mask);
+  }
+
+  /**
+   * @param state - a packed state
+   * @param player - the index of a player
+   * @param square - the square the player is on
+   * @return the state with that player's square replaced.
+   */
+  public long withPosition(final long state, final int player, final int square) {
+    checkFitsInLong();
+    int shift = offsetOf(player);
+    return (state & ~(positionMask << shift)) | ((square & positionMask) << shift);
+  }
+
+  /**
+   * @param state - a packed state
+   * @return the index of the current player.
+   * @throws IllegalStateException - if a state doesn't fit in a long, so this one can't be whole
+   */
+  public int currentPlayer(final long state) {
+    checkFitsInLong();
+    return (int) (state & ((1L << CURRENT_PLAYER_BITS) - 1));
+  }
+
+  /**
+   * @param state - a packed state
+   * @param player - the index of a player
+   * @return the square the player is on.
+   * @throws IllegalStateException - if a state doesn't fit in a long, so this one can't be whole
+   */
+  public int positionOf(final long state, final int player) {
+    checkFitsInLong();
+    return (int) ((state >>> offsetOf(player)) & positionMask);
+  }
+
+  /**
+   * Set a field in the wide form of a state.
+   *
+   * @param state - the longs holding the state, at least wideLength() of them
+   * @param player - the index of a player
+   * @param square - the square the player is on
+   */
+  public void setPosition(final long[] state, final int player, final int square) {
+    write(state, offsetOf(player), bitsPerPosition, square);
+  }
+
+  /**
+   * Set the current player in the wide form of a state.
+   *
+   * @param state - the longs holding the state, at least wideLength() of them
+   * @param currentPlayer - the index of the current player
+   */
+  public void setCurrentPlayer(final long[] state, final int currentPlayer) {
+    write(state, 0, CURRENT_PLAYER_BITS, currentPlayer);
+  }
+
+  /**
+   * @param state - the wide form of a state
+   * @return the index of the current player.
+   */
+  public int currentPlayer(final long[] state) {
+    return (int) read(state, 0, CURRENT_PLAYER_BITS);
+  }
+
+  /**
+   * @param state - the wide form of a state
+   * @param player - the index of a player
+   * @return the square the player is on.
+   */
+  public int positionOf(final long[] state, final int player) {
+    return (int) read(state, offsetOf(player), bitsPerPosition);
+  }
+
+  /**
+   * Check that a state describes a real game for this board and number of players.
+   *
+   * @param currentPlayer - the unpacked current player
+   * @param player - the index of a player
+   * @param square - the unpacked square of that player
+   */
+  void check(final int currentPlayer, final int player, final int square) {
+    if (currentPlayer >= players || square >= squares) {
+      throw new IllegalArgumentException("The state doesn't belong to this game.");
+    }
+  }
+
+  private int offsetOf(final int player) {
+    if (player < 0 || player >= players) {
+      throw new IndexOutOfBoundsException("No player " + player);
+    }
+    return CURRENT_PLAYER_BITS + player * bitsPerPosition;
+  }
+
+  private void checkFitsInLong() {
+    if (!fitsInLong()) {
+      throw new IllegalStateException("The state needs " + bits() + " bits, use the wide form.");
+    }
+  }
+
+  private static void write(final long[] state, final int offset, final int bits, final long value) {
+    int word = offset / Long.SIZE;
+    int shift = offset % Long.SIZE;
+    long mask = (1L << bits) - 1;
+    long bitsToWrite = value & mask;
+    state[word] = (state[word] & ~(mask << shift)) | (bitsToWrite << shift);
+    int spill = shift + bits - Long.SIZE;
+    if (spill > 0) {
+      long high = (1L << spill) - 1;
+      state[word + 1] = (state[word + 1] & ~high) | (bitsToWrite >>> (bits - spill));
+    }
+  }
+
+  private static long read(final long[] state, final int offset, final int bits) {
+    int word = offset / Long.SIZE;
+    int shift = offset % Long.SIZE;
+    long mask = (1L << bits) - 1;
+    long value = state[word] >>> shift;
+    int spill = shift + bits - Long.SIZE;
+    if (spill > 0) {
+      value |= state[word + 1] << (bits - spill);
+    }
+    return value & mask;
+  }
+}
@@ -0,0 +1,151 @@
+package com.cm6123.snl;
+
+import java.util.Arrays;
+
+/**
+ * A map from non-negative int keys to int values using open addressing,
+ * so that looking up a square doesn't box anything.
+ */
+final class IntIntMap {
+
+  /**
+   * Marks an empty slot in the key array.
+   */
+  private static final int EMPTY = -1;
+  /**
+   * Number of slots a new map starts with.
+   */
+  private static final int INITIAL_CAPACITY = 16;
+  /**
+   * Multiplier used to spread the keys over the slots.
+   */
+  private static final int MIX = 0x9E3779B9;
+
+  /**
+   * The keys, or EMPTY.
+   */
+  private int[] keys;
+  /**
+   * The value for the key in the same slot.
+   */
+  private int[] values;
+  /**
+   * How many keys are in the map.
+   */
+  private int count;
+  /**
+   * 32 less the log of the capacity: how far to shift a mixed key to keep its top bits.
+   */
+  private int shift;
+
+  /**
+   * Create an empty map.
+   */
+  IntIntMap() {
+    keys = new int[INITIAL_CAPACITY];
+    Arrays.fill(keys, EMPTY);
+    values = new int[INITIAL_CAPACITY];
+    shift = Integer.numberOfLeadingZeros(INITIAL_CAPACITY) + 1;
+  }
+
+  /**
+   * @param key - a non-negative key
+   * @param missing - what to return if the key isn't there
+   * @return the value for the key, or missing.
+   */
+  int get(final int key, final int missing) {
+    int slot = findSlot(key);
+    return slot < 0 ? missing : values[slot];
+  }
+
+  /**
+   * @param key - a non-negative key
+   * @return true if the key is in the map.
+   */
+  boolean containsKey(final int key) {
+    return findSlot(key) >= 0;
+  }
+
+  /**
+   * Add or replace the value for a key.
+   * @param key - a non-negative key
+   * @param value - the value to store
+   */
+  void put(final int key, final int value) {
+    if (key < 0) {
+      throw new IllegalArgumentException("Keys can't be negative");
+    }
+    if ((count + 1) * 2 > keys.length) {
+      grow();
+    }
+    int mask = keys.length - 1;
+    int slot = slotOf(key);
+    while (keys[slot] != EMPTY && keys[slot] != key) {
+      slot = (slot + 1) & mask;
+    }
+    if (keys[slot] == EMPTY) {
+      keys[slot] = key;
+      count++;
+    }
+    values[slot] = value;
+  }
+
+  /**
+   * @return how many keys are in the map.
+   */
+  int size() {
+    return count;
+  }
+
+  /**
+   * @return the keys in ascending order.
+   */
+  int[] sortedKeys() {
+    int[] sorted = new int[count];
+    int next = 0;
+    for (int key : keys) {
+      if (key != EMPTY) {
+        sorted[next++] = key;
+      }
+    }
+    Arrays.sort(sorted);
+    return sorted;
+  }
+
+  /**
+   * Fibonacci hashing: the top bits of the product depend on every bit of the key,
+   * so keys that differ only in their high bits still spread over the table.
+   * @param key - a key
+   * @return the slot its probe starts at.
+   */
+  private int slotOf(final int key) {
+    return (key * MIX) >>> shift;
+  }
+
+  private int findSlot(final int key) {
+    int mask = keys.length - 1;
+    int slot = slotOf(key);
+    while (keys[slot] != EMPTY) {
+      if (keys[slot] == key) {
+        return slot;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return -1;
+  }
+
+  private void grow() {
+    int[] oldKeys = keys;
+    int[] oldValues = values;
+    keys = new int[oldKeys.length * 2];
+    Arrays.fill(keys, EMPTY);
+    values = new int[oldValues.length * 2];
+    shift--;
+    count = 0;
+    for (int slot = 0; slot < oldKeys.length; slot++) {
+      if (oldKeys[slot] != EMPTY) {
+        put(oldKeys[slot], oldValues[slot]);
+      }
+    }
+  }
+}
@@ -0,0 +1,340 @@
+package com.cm6123.snl;
+
+import com.cm6123.snl.dice.DiceDistribution;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * What a Board's layout allows with a given set of Dice, worked out from the board as a
+ * graph of the squares, with an edge for each roll that can happen:
+ * the squares no game can stop on, the traps (groups of squares a player can get into
+ * but never out of), the fewest rolls to win from each square, and whether a game is
+ * sure (with probability 1) to finish.  Chances don't matter here, only which rolls are possible.
+ * A report never changes, so the Board keeps the last one worked out and games on it share it.
+ */
+public final class LayoutReport {
+
+  /**
+   * The board the report is on.
+   */
+  private final Board board;
+  /**
+   * How many faces on each Dice.
+   */
+  private final int faces;
+  /**
+   * How many Dice are rolled each turn.
+   */
+  private final int count;
+  /**
+   * For each square, where its turns can end.  Squares no turn ends on get their turns too,
+   * as a player can still start on one.
+   */
+  private final TurnGraph moves;
+  /**
+   * True for each square a turn can end on, and for the first square.
+   */
+  private final boolean[] lands;
+  /**
+   * True for each square a game from the first square can stop on.
+   */
+  private final boolean[] reachable;
+  /**
+   * The fewest rolls to win from each square, or -1 if it can't be done.
+   */
+  private final int[] fewestRolls;
+  /**
+   * True for each square from which the game is sure to finish.
+   */
+  private final boolean[] sure;
+  /**
+   * The traps, each in ascending order, ordered by their lowest square.
+   */
+  private final List<int[]> traps;
+
+  /**
+   * @param aBoard - the board
+   * @param dice - the dice rolled each turn
+   */
+  private LayoutReport(final Board aBoard, final DiceDistribution dice) {
+    board = aBoard;
+    faces = dice.getFaces();
+    count = dice.getCount();
+    moves = buildMoves(aBoard, dice);
+    lands = landingSquares(aBoard);
+    reachable = reachableFrom(0);
+    fewestRolls = moves.fewestTurnsToLast(moves.incoming());
+    boolean[] finishing = new boolean[fewestRolls.length];
+    for (int square = 0; square < finishing.length; square++) {
+      finishing[square] = fewestRolls[square] >= 0;
+    }
+    sure = moves.finishesSurely(finishing);
+    traps = findTraps();
+  }
+
+  /**
+   * Analyse a board, or get the report the board already has for the same dice.
+   * @param board - the board
+   * @param faces - how many faces on each Dice
+   * @param count - how many Dice are rolled each turn
+   * @return the report.
+   */
+  public static LayoutReport of(final Board board, final int faces, final int count) {
+    LayoutReport report = board.getLayoutReport();
+    if (report == null || report.faces != faces || report.count != count) {
+      report = new LayoutReport(board, DiceDistribution.of(faces, count));
+      board.setLayoutReport(report);
+    }
+    return report;
+  }
+
+  /**
+   * Work out the edges: the distinct squares each possible roll takes each square to.
+   * The last square gets no edges, as the game is over there.
+   * @param board - the board
+   * @param dice - the dice rolled each turn
+   * @return the graph of the squares.
+   */
+  private static TurnGraph buildMoves(final Board board, final DiceDistribution dice) {
+    int size = board.size();
+    int last = size - 1;
+    int[] starts = new int[size + 1];
+    int[] targets = new int[last * (dice.maxSum() - dice.minSum() + 1)];
+    int used = 0;
+    for (int from = 0; from < last; from++) {
+      starts[from] = used;
+      for (int roll = dice.minSum(); roll <= dice.maxSum(); roll++) {
+        if (dice.probabilityOf(roll) == 0) {
+          continue;
+        }
+        int to = board.landing(from, roll);
+        int edge = starts[from];
+        while (edge < used && targets[edge] != to) {
+          edge++;
+        }
+        if (edge == used) {
+          targets[used++] = to;
+        }
+      }
+    }
+    starts[last] = used;
+    starts[size] = used;
+    return new TurnGraph(starts, Arrays.copyOf(targets, used));
+  }
+
+  /**
+   * The snake heads, ladder feet and boosts move a player on, so no turn ends on them,
+   * but a game starts on the first square whatever it is.
+   * @param board - the board
+   * @return true for each square a turn can end on, and for the first square.
+   */
+  private static boolean[] landingSquares(final Board board) {
+    int size = board.size();
+    boolean[] landing = new boolean[size];
+    Arrays.fill(landing, true);
+    for (int square : board.boostSquares()) {
+      landing[square] = false;
+    }
+    for (int square = 0; square < size - 1; square++) {
+      landing[square] &= board.destinationOf(square) == square;
+    }
+    landing[0] = true;
+    return landing;
+  }
+
+  /**
+   * @param start - the square to start from
+   * @return true for each square a game from start can stop on (including start).
+   */
+  private boolean[] reachableFrom(final int start) {
+    boolean[] reached = new boolean[moves.size()];
+    int[] queue = new int[moves.size()];
+    int tail = 0;
+    reached[start] = true;
+    queue[tail++] = start;
+    for (int head = 0; head < tail; head++) {
+      for (int edge = moves.edgeStart(queue[head]); edge < moves.edgeEnd(queue[head]); edge++) {
+        int to = moves.target(edge);
+        if (!reached[to]) {
+          reached[to] = true;
+          queue[tail++] = to;
+        }
+      }
+    }
+    return reached;
+  }
+
+  /**
+   * Find the strongly connected components with Tarjan's algorithm (without recursion,
+   * so big boards don't overflow the stack) and keep those no edge leaves, other than the last square.
+   * @return the traps, each in ascending order, ordered by their lowest square.
+   */
+  private List<int[]> findTraps() {
+    int size = moves.size();
+    int[] index = new int[size];
+    int[] low = new int[size];
+    int[] component = new int[size];
+    Arrays.fill(index, -1);
+    Arrays.fill(component, -1);
+    int[] stack = new int[size];
+    int[] path = new int[size];
+    int[] next = new int[size];
+    int stacked = 0;
+    int counter = 0;
+    int components = 0;
+    List<int[]> found = new ArrayList<>();
+    for (int root = 0; root < size; root++) {
+      if (index[root] >= 0) {
+        continue;
+      }
+      int depth = 0;
+      path[depth] = root;
+      next[root] = moves.edgeStart(root);
+      index[root] = counter;
+      low[root] = counter++;
+      stack[stacked++] = root;
+      while (depth >= 0) {
+        int square = path[depth];
+        if (next[square] < moves.edgeEnd(square)) {
+          int to = moves.target(next[square]++);
+          if (index[to] < 0) {
+            index[to] = counter;
+            low[to] = counter++;
+            stack[stacked++] = to;
+            next[to] = moves.edgeStart(to);
+            path[++depth] = to;
+          } else if (component[to] < 0) {
+            low[square] = Math.min(low[square], index[to]);
+          }
+          continue;
+        }
+        if (low[square] == index[square]) {
+          int first = stacked;
+          do {
+            component[stack[--first]] = components;
+          } while (stack[first] != square);
+          if (isClosed(stack, first, stacked, component, components)) {
+            int[] trap = Arrays.copyOfRange(stack, first, stacked);
+            Arrays.sort(trap);
+            found.add(trap);
+          }
+          stacked = first;
+          components++;
+        }
+        depth--;
+        if (depth >= 0) {
+          low[path[depth]] = Math.min(low[path[depth]], low[square]);
+        }
+      }
+    }
+    found.sort((a, b) -> Integer.compare(a[0], b[0]));
+    return found;
+  }
+
+  /**
+   * @param stack - the Tarjan stack
+   * @param from - where the component starts on the stack
+   * @param to - one past where it ends
+   * @param component - the component of each square
+   * @param which - the component to check
+   * @return true if the component is a trap: no edge leaves it, it isn't the last square,
+   *     and a game can stop on it (a square no turn ends on is never a trap by itself).
+   */
+  private boolean isClosed(final int[] stack, final int from, final int to, final int[] component, final int which) {
+    for (int k = from; k < to; k++) {
+      int square = stack[k];
+      if (square == moves.last() || !lands[square]) {
+        return false;
+      }
+      for (int edge = moves.edgeStart(square); edge < moves.edgeEnd(square); edge++) {
+        if (component[moves.target(edge)] != which) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return the board the report is on.
+   */
+  public Board getBoard() {
+    return board;
+  }
+
+  /**
+   * @return the squares a game from the first square can never stop on, leaving out the snake heads,
+   *     ladder feet and boosts, which no turn ends on anyway.
+   */
+  public int[] getUnreachableSquares() {
+    int count = 0;
+    int[] squares = new int[moves.size()];
+    for (int square = 0; square < squares.length; square++) {
+      if (lands[square] && !reachable[square]) {
+        squares[count++] = square;
+      }
+    }
+    return Arrays.copyOf(squares, count);
+  }
+
+  /**
+   * @return every trap on the board, reachable or not: groups of squares a player can get into
+   *     but never out of, so never win from.  Each is in ascending order.
+   */
+  public List<int[]> getTraps() {
+    List<int[]> copy = new ArrayList<>();
+    for (int[] trap : traps) {
+      copy.add(trap.clone());
+    }
+    return copy;
+  }
+
+  /**
+   * @return the fewest rolls to win from each square, or -1 where it can't be done (a copy).
+   */
+  public int[] getFewestRollsToWin() {
+    return fewestRolls.clone();
+  }
+
+  /**
+   * @param square - a square
+   * @return the fewest rolls to win from it, or -1 if it can't be done.
+   */
+  public int fewestRollsToWin(final int square) {
+    return fewestRolls[square];
+  }
+
+  /**
+   * @return true if a game from the first square is sure to finish (with probability 1).
+   */
+  public boolean finishesSurely() {
+    return sure[0];
+  }
+
+  /**
+   * @param square - a square
+   * @return true if a game from the square is sure to finish, i.e. no trap can be reached from it.
+   *     For a square no turn ends on, this is for a player put there to start with.
+   */
+  public boolean finishesSurelyFrom(final int square) {
+    return sure[square];
+  }
+
+  /**
+   * @return a one line summary.
+   */
+  @Override
+  public String toString() {
+    StringBuilder text = new StringBuilder();
+    text.append(finishesSurely() ? "Finishes" : "Might never finish")
+        .append(", fewest rolls to win ").append(fewestRolls[0])
+        .append(", unreachable squares ").append(Arrays.toString(getUnreachableSquares()))
+        .append(", traps [");
+    for (int t = 0; t < traps.size(); t++) {
+      text.append(t == 0 ? "" : ", ").append(Arrays.toString(traps.get(t)));
+    }
+    return text.append(']').toString();
+  }
+}
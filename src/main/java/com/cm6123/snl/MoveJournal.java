@@ -0,0 +1,184 @@
+package com.cm6123.snl;
+
+import java.util.Arrays;
+
+/**
+ * A record of the rolls made in a game, packed into as few bits as the dice need
+ * (3 bits for a six-sided dice), with a snapshot of the game state every
+ * KEYFRAME_INTERVAL turns so any turn can be rebuilt by replaying a few rolls.
+ */
+final class MoveJournal {
+
+  /**
+   * How many turns apart the state snapshots are.
+   */
+  static final int KEYFRAME_INTERVAL = 64;
+
+  /**
+   * The largest roll that can be recorded.
+   */
+  private final int maxRoll;
+  /**
+   * Bits used for each roll.
+   */
+  private final int bitsPerRoll;
+  /**
+   * How many longs a snapshot takes.
+   */
+  private final int stateWidth;
+  /**
+   * The rolls, each stored as roll - 1.
+   */
+  private long[] rolls;
+  /**
+   * The number of rolls recorded, including those that have been undone.
+   */
+  private int length;
+  /**
+   * The number of rolls currently applied to the game.
+   */
+  private int cursor;
+  /**
+   * Snapshot k is the state before turn k * KEYFRAME_INTERVAL, stateWidth longs each.
+   */
+  private long[] keyframes;
+  /**
+   * The number of snapshots stored.
+   */
+  private int keyframeCount;
+
+  /**
+   * Start a journal from the current state of a game.
+   *
+   * @param aMaxRoll - the largest roll that will be recorded
+   * @param start - the wide snapshot of the game when the journal starts
+   */
+  MoveJournal(final int aMaxRoll, final long[] start) {
+    if (aMaxRoll < 1) {
+      throw new IllegalArgumentException("The largest roll must be at least 1.");
+    }
+    maxRoll = aMaxRoll;
+    bitsPerRoll = Math.max(1, Integer.SIZE - Integer.numberOfLeadingZeros(aMaxRoll - 1));
+    stateWidth = start.length;
+    rolls = new long[1];
+    keyframes = new long[stateWidth * 4];
+    System.arraycopy(start, 0, keyframes, 0, stateWidth);
+    keyframeCount = 1;
+  }
+
+  /**
+   * Check a roll can be recorded before the game is moved.
+   * @param roll - the roll about to be made
+   */
+  void checkRoll(final int roll) {
+    if (roll < 1 || roll > maxRoll) {
+      throw new IllegalArgumentException("The journal can only record rolls from 1 to " + maxRoll + ".");
+    }
+  }
+
+  /**
+   * @return true if this turn needs a snapshot of the state before it is recorded.
+   */
+  boolean needsKeyframe() {
+    return cursor % KEYFRAME_INTERVAL == 0 && cursor / KEYFRAME_INTERVAL >= keyframeCount;
+  }
+
+  /**
+   * Store the snapshot for the turn about to be recorded.
+   * @param state - the wide snapshot of the game before the turn
+   */
+  void addKeyframe(final long[] state) {
+    int offset = keyframeCount * stateWidth;
+    if (offset + stateWidth > keyframes.length) {
+      keyframes = Arrays.copyOf(keyframes, keyframes.length * 2);
+    }
+    System.arraycopy(state, 0, keyframes, offset, stateWidth);
+    keyframeCount++;
+  }
+
+  /**
+   * Drop any undone rolls, and the snapshots taken after the cursor, before a new roll.
+   */
+  void truncate() {
+    length = cursor;
+    keyframeCount = Math.min(keyframeCount, cursor / KEYFRAME_INTERVAL + 1);
+  }
+
+  /**
+   * Record a new roll at the cursor.
+   * @param roll - the roll that was made
+   */
+  void record(final int roll) {
+    long bit = (long) cursor * bitsPerRoll;
+    int word = (int) (bit / Long.SIZE);
+    if (word + 1 >= rolls.length) {
+      rolls = Arrays.copyOf(rolls, rolls.length * 2 + 1);
+    }
+    int shift = (int) (bit % Long.SIZE);
+    long mask = (1L << bitsPerRoll) - 1;
+    long value = roll - 1;
+    rolls[word] = (rolls[word] & ~(mask << shift)) | (value << shift);
+    int spill = shift + bitsPerRoll - Long.SIZE;
+    if (spill > 0) {
+      rolls[word + 1] = (rolls[word + 1] & ~((1L << spill) - 1)) | (value >>> (bitsPerRoll - spill));
+    }
+    cursor++;
+    length = cursor;
+  }
+
+  /**
+   * @param turn - the index of a recorded turn
+   * @return the roll made on that turn.
+   */
+  int rollAt(final int turn) {
+    long bit = (long) turn * bitsPerRoll;
+    int word = (int) (bit / Long.SIZE);
+    int shift = (int) (bit % Long.SIZE);
+    long value = rolls[word] >>> shift;
+    int spill = shift + bitsPerRoll - Long.SIZE;
+    if (spill > 0) {
+      value |= rolls[word + 1] << (bitsPerRoll - spill);
+    }
+    return (int) (value & ((1L << bitsPerRoll) - 1)) + 1;
+  }
+
+  /**
+   * Copy the nearest snapshot at or before a turn.
+   * @param turn - the turn to rebuild
+   * @param state - filled with the snapshot
+   * @return the turn the snapshot was taken at.
+   */
+  int keyframeBefore(final int turn, final long[] state) {
+    int keyframe = Math.min(turn / KEYFRAME_INTERVAL, keyframeCount - 1);
+    System.arraycopy(keyframes, keyframe * stateWidth, state, 0, stateWidth);
+    return keyframe * KEYFRAME_INTERVAL;
+  }
+
+  /**
+   * @return the largest roll that can be recorded.
+   */
+  int maxRoll() {
+    return maxRoll;
+  }
+
+  /**
+   * @return the number of rolls currently applied.
+   */
+  int cursor() {
+    return cursor;
+  }
+
+  /**
+   * @param turn - the new number of applied rolls
+   */
+  void moveCursor(final int turn) {
+    cursor = turn;
+  }
+
+  /**
+   * @return the number of rolls recorded, including undone ones.
+   */
+  int length() {
+    return length;
+  }
+}
@@ -10,6 +10,10 @@ public final class Player {
    * The current position of the player.
    */
   private Position position;
+  /**
+   * The read-only data last handed out, reused until the player moves.
+   */
+  private PlayerData data;
 
   /**
    * Make a player with a colour and place them at a start position.
@@ -24,10 +28,10 @@ public final class Player {
 
   /**
    * Move the player to a new position.
+   * Only PlayerList calls this, so its array of squares stays in step with the player.
    * @param newPosition the position the player should move to
    */
-  public void moveTo(final Position newPosition) {
-
+  void moveTo(final Position newPosition) {
     position = newPosition;
   }
 
@@ -61,7 +65,10 @@ public final class Player {
    * @return read-only version of the Player.
    */
   public PlayerData getPlayerData() {
-    return new PlayerData(this.colour, this.position);
+    if (data == null || data.getPosition() != position) {
+      data = new PlayerData(this.colour, this.position);
+    }
+    return data;
   }
 
   /**
@@ -11,24 +11,36 @@ class PlayerList implements Iterable<Player> {
    * A List of Players.
    */
   private List<Player> players;
+  /**
+   * The square each player is on, indexed by player.
+   */
+  private final int[] positions;
+  /**
+   * The board the players are on, which hands out the Position objects.
+   */
+  private final Board board;
   /**
    * The index to the current player in the list.
    */
-  private Integer currentPlayer;
+  private int currentPlayer;
 
   /**
    * Create a PlayerList.  Rotate through the colours.
    *
    * @param count    how many Players
-   * @param theStart where should each Player start
+   * @param theBoard the board on which each Player starts
    */
   PlayerList(final Integer count,
-             final Position theStart) {
+             final Board theBoard) {
 
+    board = theBoard;
     players = new ArrayList<>();
+    positions = new int[count];
 
+    Position start = board.start();
     for (int colour = 0; colour < count; colour++) {
-      players.add(new Player(Player.PlayerColour.values()[colour], theStart));
+      players.add(new Player(Player.PlayerColour.values()[colour], start));
+      positions[colour] = start.get();
     }
 
     currentPlayer = 0;
@@ -39,22 +51,18 @@ class PlayerList implements Iterable<Player> {
    * Create a PlayerList.  Rotate through the colours.
    *
    * @param count    how many Players
-   * @param theStart where should each Player start
+   * @param theBoard the board on which each Player starts
    * @param currentPlayer - This describes the starting player of the game. Useful for loading the game.
    * @param initialPositions - Denotes the starting positions of each player, useful when loading a game
    */
   PlayerList(final Integer count,
-             final Position theStart,
+             final Board theBoard,
              final Integer currentPlayer,
              final Integer[] initialPositions) {
 
-    players = new ArrayList<>();
-
-    for (int colour = 0; colour < count; colour++) {
-      players.add(new Player(Player.PlayerColour.values()[colour], theStart));
-    }
+    this(count, theBoard);
     for (int i = 0; i < initialPositions.length; i++){
-      players.get(i).moveTo(new Position(initialPositions[i]));
+      moveTo(i, initialPositions[i]);
     }
 
     // -1 Because of 0-based indexing
@@ -119,6 +127,25 @@ class PlayerList implements Iterable<Player> {
     return players.stream();
   }
 
+  /**
+   * Get the square a player is on without creating any objects.
+   * @param index the index (0 based) of the player
+   * @return the square the player is on.
+   */
+  public int positionOf(final int index) {
+    return positions[index];
+  }
+
+  /**
+   * Move a player to a square.
+   * @param index the index (0 based) of the player
+   * @param square the square the player should move to
+   */
+  public void moveTo(final int index, final int square) {
+    positions[index] = square;
+    players.get(index).moveTo(board.positionAt(square));
+  }
+
   /**
    * @return - The index of current player. Useful when saving the game
    */
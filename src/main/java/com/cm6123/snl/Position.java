@@ -7,11 +7,12 @@ public final class Position {
   /**
    * The position knows it's own index on the board.
    */
-  private Integer value;
+  private final Integer value;
 
   /**
    * Create a Position object that represents
    * a read-only representation of where the player is.
+   * Use Board.positionAt to share one Position per square instead.
    *
    * @param aValue the number of the position
    */
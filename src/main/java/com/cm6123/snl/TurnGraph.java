@@ -0,0 +1,241 @@
+package com.cm6123.snl;
+
+import java.util.Arrays;
+
+/**
+ * The squares of a Board as a directed graph, with an edge from each square to the squares
+ * its turns can end on.  Edges are stored compressed (CSR) and the last square has none, as
+ * the game is over there.  Both LayoutReport and the analytics TransitionMatrix answer their
+ * questions about which squares can finish with one of these.
+ */
+public final class TurnGraph {
+
+  /**
+   * Sweeps down the squares tried by canFinish before it builds the reverse graph instead.
+   */
+  private static final int FINISH_SWEEPS = 8;
+
+  /**
+   * Where each square's edges start in targets; one extra entry marks the end.
+   */
+  private final int[] edgeStart;
+  /**
+   * The square each edge goes to.
+   */
+  private final int[] targets;
+
+  /**
+   * The arrays are kept, not copied, so they must not be changed afterwards.
+   * @param starts - where each square's edges start, with one extra entry marking the end
+   * @param someTargets - the square each edge goes to
+   */
+  public TurnGraph(final int[] starts, final int[] someTargets) {
+    edgeStart = starts;
+    targets = someTargets;
+  }
+
+  /**
+   * @return the number of squares.
+   */
+  public int size() {
+    return edgeStart.length - 1;
+  }
+
+  /**
+   * @return the last (winning) square.
+   */
+  public int last() {
+    return edgeStart.length - 2;
+  }
+
+  /**
+   * @param square - a square
+   * @return where its edges start.
+   */
+  public int edgeStart(final int square) {
+    return edgeStart[square];
+  }
+
+  /**
+   * @param square - a square
+   * @return one past where its edges end.
+   */
+  public int edgeEnd(final int square) {
+    return edgeStart[square + 1];
+  }
+
+  /**
+   * @param edge - an edge
+   * @return the square it goes to.
+   */
+  public int target(final int edge) {
+    return targets[edge];
+  }
+
+  /**
+   * The edges backwards: for each square, the squares a turn can come from.
+   * Each square's sources are in ascending order.
+   * @return where each square's sources start (one extra entry marks the end), then the sources.
+   */
+  public int[][] incoming() {
+    int size = size();
+    int[] starts = new int[size + 1];
+    for (int edge = 0; edge < edgeStart[size]; edge++) {
+      starts[targets[edge] + 1]++;
+    }
+    for (int square = 0; square < size; square++) {
+      starts[square + 1] += starts[square];
+    }
+    int[] sources = new int[edgeStart[size]];
+    int[] fill = Arrays.copyOf(starts, size);
+    for (int from = 0; from < size; from++) {
+      for (int edge = edgeStart[from]; edge < edgeStart[from + 1]; edge++) {
+        sources[fill[targets[edge]]++] = from;
+      }
+    }
+    return new int[][]{starts, sources};
+  }
+
+  /**
+   * Find the squares some target can be reached from, by a breadth first search of the edges backwards.
+   * @param someTargets - true for each target square
+   * @param incoming - the edges backwards, from incoming()
+   * @return true for each square a target can be reached from (including the targets).
+   */
+  public boolean[] reachingAny(final boolean[] someTargets, final int[][] incoming) {
+    int size = size();
+    int[] starts = incoming[0];
+    int[] sources = incoming[1];
+    boolean[] reached = new boolean[size];
+    int[] queue = new int[size];
+    int tail = 0;
+    for (int square = 0; square < size; square++) {
+      if (someTargets[square]) {
+        reached[square] = true;
+        queue[tail++] = square;
+      }
+    }
+    for (int head = 0; head < tail; head++) {
+      int to = queue[head];
+      for (int k = starts[to]; k < starts[to + 1]; k++) {
+        int from = sources[k];
+        if (!reached[from]) {
+          reached[from] = true;
+          queue[tail++] = from;
+        }
+      }
+    }
+    return reached;
+  }
+
+  /**
+   * Breadth first search back from the last square.
+   * @param incoming - the edges backwards, from incoming()
+   * @return the fewest turns to the last square from each square, or -1 if it can't be reached.
+   */
+  public int[] fewestTurnsToLast(final int[][] incoming) {
+    int size = size();
+    int[] starts = incoming[0];
+    int[] sources = incoming[1];
+    int[] turns = new int[size];
+    Arrays.fill(turns, -1);
+    int[] queue = new int[size];
+    int tail = 0;
+    turns[last()] = 0;
+    queue[tail++] = last();
+    for (int head = 0; head < tail; head++) {
+      int to = queue[head];
+      for (int k = starts[to]; k < starts[to + 1]; k++) {
+        int from = sources[k];
+        if (turns[from] < 0) {
+          turns[from] = turns[to] + 1;
+          queue[tail++] = from;
+        }
+      }
+    }
+    return turns;
+  }
+
+  /**
+   * @return true for each square from which the last square can be reached.
+   */
+  public boolean[] canFinish() {
+    boolean[] finishing = sweepToLast();
+    if (finishing != null) {
+      return finishing;
+    }
+    boolean[] target = new boolean[size()];
+    target[last()] = true;
+    return reachingAny(target, incoming());
+  }
+
+  /**
+   * Find the squares the last square can be reached from by sweeping down the squares, which
+   * settles in one sweep when every turn goes forward and one more for each snake that has
+   * to be taken on the way.  No reverse graph is built.
+   * @return true for each square the last square can be reached from, or null if a few
+   *     sweeps didn't settle it.
+   */
+  private boolean[] sweepToLast() {
+    boolean[] finishing = new boolean[size()];
+    finishing[last()] = true;
+    for (int sweep = 0; sweep < FINISH_SWEEPS; sweep++) {
+      // another sweep is only needed if a square was found below one still not finishing,
+      // which might have a snake down to it
+      boolean unsettledAbove = false;
+      boolean again = false;
+      for (int from = last() - 1; from >= 0; from--) {
+        if (finishing[from]) {
+          continue;
+        }
+        for (int edge = edgeStart[from]; edge < edgeStart[from + 1]; edge++) {
+          if (finishing[targets[edge]]) {
+            finishing[from] = true;
+            break;
+          }
+        }
+        if (finishing[from]) {
+          again |= unsettledAbove;
+        } else {
+          unsettledAbove = true;
+        }
+      }
+      if (!again) {
+        return finishing;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @return true for each square from which the game is sure to finish (with probability 1),
+   *     because no square that can't finish is reachable from it.
+   */
+  public boolean[] finishesSurely() {
+    return finishesSurely(canFinish());
+  }
+
+  /**
+   * @param finishing - true for each square from which the last square can be reached, from canFinish()
+   * @return true for each square from which the game is sure to finish (with probability 1),
+   *     because no square that can't finish is reachable from it.
+   */
+  public boolean[] finishesSurely(final boolean[] finishing) {
+    boolean[] stuck = new boolean[finishing.length];
+    boolean any = false;
+    for (int square = 0; square < stuck.length; square++) {
+      stuck[square] = !finishing[square];
+      any |= stuck[square];
+    }
+    if (!any) {
+      // every square can finish, so none can reach one that can't
+      Arrays.fill(stuck, true);
+      return stuck;
+    }
+    boolean[] risky = reachingAny(stuck, incoming());
+    for (int square = 0; square < risky.length; square++) {
+      risky[square] = !risky[square];
+    }
+    return risky;
+  }
+}
@@ -0,0 +1,131 @@
+package com.cm6123.snl.analytics;
+
+import com.cm6123.snl.Board;
+
+/**
+ * The expected turns of a layout, kept up to date as it is edited one change at a time.
+ * Only the turns from just below the edited squares are worked out again.  Normally the layout
+ * is solved exactly with a TailElimination: the squares above the highest turn an edit changes
+ * keep their rows, so only the rows below it and a small dense solve for the snake tails are redone.
+ * Layouts whose rows would take more than TAIL_LIMIT doubles (squares times snakes, 16 MB) use
+ * Gauss-Seidel instead, starting from the answer before the edit.
+ */
+public final class IncrementalAnalysis {
+
+  /**
+   * Most squares times (snakes + 1) solved by elimination: 16 MB of rows, which each edit reuses.
+   */
+  private static final long TAIL_LIMIT = 1L << 21;
+
+  /**
+   * How many faces on each Dice.
+   */
+  private final int faces;
+  /**
+   * How many Dice are rolled each turn.
+   */
+  private final int count;
+  /**
+   * The layout as edited so far.
+   */
+  private Board board;
+  /**
+   * The chain for that layout.
+   */
+  private TransitionMatrix matrix;
+  /**
+   * The exact solve of the layout, or null when Gauss-Seidel is used.
+   */
+  private TailElimination elimination;
+  /**
+   * The expected turns from each square when Gauss-Seidel is used.
+   */
+  private double[] expected;
+  /**
+   * The Gauss-Seidel sweeps the last solve took, or 0 for elimination.
+   */
+  private int sweeps;
+
+  /**
+   * Solve a layout from nothing.
+   * @param aBoard - the layout
+   * @param howManyFaces - how many faces on each Dice
+   * @param howManyDice - how many Dice are rolled each turn
+   */
+  public IncrementalAnalysis(final Board aBoard, final int howManyFaces, final int howManyDice) {
+    faces = howManyFaces;
+    count = howManyDice;
+    solve(aBoard, TransitionMatrix.of(aBoard, howManyFaces, howManyDice), Integer.MAX_VALUE);
+  }
+
+  /**
+   * Apply an edit and bring the expected turns up to date.
+   * @param edit - the change to make
+   * @return the expected turns from the first square after the edit.
+   */
+  public double apply(final LayoutEdit edit) {
+    Board edited = edit.applyTo(board);
+    // a turn only passes squares up to (boosts + 1) rolls ahead, so only rows that close below a change can change
+    int boosts = Math.max(board.boostSquares().length, edited.boostSquares().length);
+    int reach = (boosts + 1) * matrix.getDice().maxSum();
+    int highest = edit.highestSquare() - 1;
+    solve(edited, matrix.edited(edited, edit.lowestSquare() - reach, highest), highest);
+    return getExpectedTurnsFromStart();
+  }
+
+  /**
+   * Solve an edited layout, reusing what can be from the last solve.
+   * @param edited - the layout
+   * @param editedMatrix - its chain
+   * @param highestChange - no turn from a square above this was changed by the edit
+   */
+  private void solve(final Board edited, final TransitionMatrix editedMatrix, final int highestChange) {
+    if ((long) edited.size() * (edited.snakeHeads().length + 1) <= TAIL_LIMIT) {
+      elimination = new TailElimination(editedMatrix, elimination, highestChange);
+      expected = null;
+      sweeps = 0;
+    } else {
+      double[] answer = expected != null ? expected.clone() : new double[editedMatrix.size()];
+      sweeps = new MarkovSolver(editedMatrix).solve(answer);
+      elimination = null;
+      expected = answer;
+    }
+    board = edited;
+    matrix = editedMatrix;
+  }
+
+  /**
+   * @return the layout as edited so far.
+   */
+  public Board getBoard() {
+    return board;
+  }
+
+  /**
+   * @return the chain for the layout as edited so far.
+   */
+  public TransitionMatrix getMatrix() {
+    return matrix;
+  }
+
+  /**
+   * @return the expected turns to finish from each square.
+   */
+  public double[] getExpectedTurns() {
+    return elimination != null ? elimination.expectedTurns() : expected.clone();
+  }
+
+  /**
+   * @return the expected turns to finish from the first square.
+   */
+  public double getExpectedTurnsFromStart() {
+    return elimination != null ? elimination.expectedFrom(0) : expected[0];
+  }
+
+  /**
+   * @return the Gauss-Seidel sweeps the last solve took, or 0 if it was solved by elimination.
+   */
+  public int getLastSweeps() {
+    return sweeps;
+  }
+}
@@ -0,0 +1,194 @@
+package com.cm6123.snl.analytics;
+
+import com.cm6123.snl.Board;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One change to a layout: adding, removing or moving a snake, ladder or boost.
+ * Boards never change, so an edit makes a new Board from an old one.
+ */
+public final class LayoutEdit {
+
+  /**
+   * What is being added.
+   */
+  private enum Kind {
+    /**
+     * Nothing is added.
+     */
+    NONE,
+    /**
+     * A snake from start down to end.
+     */
+    SNAKE,
+    /**
+     * A ladder from start up to end.
+     */
+    LADDER,
+    /**
+     * A boost on start.
+     */
+    BOOST
+  }
+
+  /**
+   * The square whose snake, ladder or boost is removed, or -1.
+   */
+  private final int removed;
+  /**
+   * What is added.
+   */
+  private final Kind added;
+  /**
+   * The snake head, ladder foot or boost square added.
+   */
+  private final int start;
+  /**
+   * The snake tail or ladder top added.
+   */
+  private final int end;
+
+  /**
+   * @param aRemoved - the square whose special is removed, or -1
+   * @param anAdded - what is added
+   * @param aStart - the snake head, ladder foot or boost square added
+   * @param anEnd - the snake tail or ladder top added
+   */
+  private LayoutEdit(final int aRemoved, final Kind anAdded, final int aStart, final int anEnd) {
+    removed = aRemoved;
+    added = anAdded;
+    start = aStart;
+    end = anEnd;
+  }
+
+  /**
+   * @param head - the head of the new snake
+   * @param tail - its tail
+   * @return the edit.
+   */
+  public static LayoutEdit addSnake(final int head, final int tail) {
+    return new LayoutEdit(-1, Kind.SNAKE, head, tail);
+  }
+
+  /**
+   * @param foot - the foot of the new ladder
+   * @param top - its top
+   * @return the edit.
+   */
+  public static LayoutEdit addLadder(final int foot, final int top) {
+    return new LayoutEdit(-1, Kind.LADDER, foot, top);
+  }
+
+  /**
+   * @param square - the new boost square
+   * @return the edit.
+   */
+  public static LayoutEdit addBoost(final int square) {
+    return new LayoutEdit(-1, Kind.BOOST, square, square);
+  }
+
+  /**
+   * @param square - a snake head, ladder foot or boost square
+   * @return the edit that removes it.
+   */
+  public static LayoutEdit remove(final int square) {
+    return new LayoutEdit(square, Kind.NONE, -1, -1);
+  }
+
+  /**
+   * @param head - the head of an existing snake
+   * @param newHead - where its head goes
+   * @param newTail - where its tail goes
+   * @return the edit.
+   */
+  public static LayoutEdit moveSnake(final int head, final int newHead, final int newTail) {
+    return new LayoutEdit(head, Kind.SNAKE, newHead, newTail);
+  }
+
+  /**
+   * @param foot - the foot of an existing ladder
+   * @param newFoot - where its foot goes
+   * @param newTop - where its top goes
+   * @return the edit.
+   */
+  public static LayoutEdit moveLadder(final int foot, final int newFoot, final int newTop) {
+    return new LayoutEdit(foot, Kind.LADDER, newFoot, newTop);
+  }
+
+  /**
+   * @param square - an existing boost square
+   * @param newSquare - where the boost goes
+   * @return the edit.
+   */
+  public static LayoutEdit moveBoost(final int square, final int newSquare) {
+    return new LayoutEdit(square, Kind.BOOST, newSquare, newSquare);
+  }
+
+  /**
+   * @return the lowest square the edit puts or takes away a snake, ladder or boost on.
+   */
+  int lowestSquare() {
+    return added == Kind.NONE ? removed : removed < 0 ? start : Math.min(removed, start);
+  }
+
+  /**
+   * @return the highest square the edit puts or takes away a snake, ladder or boost on.
+   */
+  int highestSquare() {
+    return Math.max(removed, added == Kind.NONE ? -1 : start);
+  }
+
+  /**
+   * Make the board with this edit applied.
+   * @param board - the board to edit
+   * @return a new board.
+   */
+  public Board applyTo(final Board board) {
+    List<Integer> snakes = new ArrayList<>();
+    List<Integer> ladders = new ArrayList<>();
+    List<Integer> boosts = new ArrayList<>();
+    boolean found = removed < 0;
+    for (int head : board.snakeHeads()) {
+      if (head == removed) {
+        found = true;
+      } else {
+        snakes.add(head);
+        snakes.add(board.destinationOf(head));
+      }
+    }
+    for (int foot : board.ladderFeet()) {
+      if (foot == removed) {
+        found = true;
+      } else {
+        ladders.add(foot);
+        ladders.add(board.destinationOf(foot));
+      }
+    }
+    for (int square : board.boostSquares()) {
+      if (square == removed) {
+        found = true;
+      } else {
+        boosts.add(square);
+      }
+    }
+    if (!found) {
+      throw new IllegalArgumentException("There is no snake, ladder or boost on square " + removed + ".");
+    }
+    if (added == Kind.SNAKE) {
+      snakes.add(start);
+      snakes.add(end);
+    } else if (added == Kind.LADDER) {
+      ladders.add(start);
+      ladders.add(end);
+    } else if (added == Kind.BOOST) {
+      boosts.add(start);
+    }
+    return new Board(board.getWidth(),
+            snakes.toArray(new Integer[0]),
+            ladders.toArray(new Integer[0]),
+            boosts.toArray(new Integer[0]),
+            board.isWinningOnly());
+  }
+}
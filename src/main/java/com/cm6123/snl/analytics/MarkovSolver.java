@@ -0,0 +1,178 @@
+package com.cm6123.snl.analytics;
+
+/**
+ * Exact answers for one player on a board, from its TransitionMatrix:
+ * the expected number of turns to finish from every square, and the chance of
+ * having finished by each turn.
+ */
+public final class MarkovSolver {
+
+  /**
+   * Largest change, relative to the value, at which the expected turns count as solved.
+   */
+  private static final double TOLERANCE = 1e-12;
+  /**
+   * The most Gauss-Seidel sweeps before giving up.
+   */
+  private static final int MAX_SWEEPS = 1_000_000;
+
+  /**
+   * The chain being solved.
+   */
+  private final TransitionMatrix matrix;
+  /**
+   * True for each square the game is sure to finish from.
+   */
+  private final boolean[] sure;
+  /**
+   * True for each square the last square can be reached from.
+   */
+  private final boolean[] finishable;
+
+  /**
+   * @param aMatrix - the chain to solve
+   */
+  public MarkovSolver(final TransitionMatrix aMatrix) {
+    matrix = aMatrix;
+    sure = aMatrix.finishesSurely();
+    finishable = aMatrix.canFinish();
+  }
+
+  /**
+   * @return the chain being solved.
+   */
+  public TransitionMatrix getMatrix() {
+    return matrix;
+  }
+
+  /**
+   * Solve E[s] = 1 + sum of P(s, t) E[t], with E = 0 on the last square.
+   * Squares from which the game might never finish get infinity.
+   * @return the expected number of turns to finish from each square.
+   */
+  public double[] expectedTurns() {
+    double[] expected = new double[matrix.size()];
+    solve(expected);
+    return expected;
+  }
+
+  /**
+   * @return the expected number of turns to finish from the first square.
+   */
+  public double expectedTurnsFromStart() {
+    return expectedTurns()[0];
+  }
+
+  /**
+   * Solve for the expected turns by Gauss-Seidel, sweeping from the last square down
+   * so most moves forward use values from the same sweep.
+   * @param expected - a first guess for each square, replaced by the answer
+   * @return the number of sweeps it took.
+   */
+  int solve(final double[] expected) {
+    int last = matrix.last();
+    for (int square = 0; square < expected.length; square++) {
+      if (!sure[square]) {
+        expected[square] = Double.POSITIVE_INFINITY;
+      } else if (Double.isInfinite(expected[square]) || square == last) {
+        expected[square] = 0;
+      }
+    }
+    for (int sweep = 1; sweep <= MAX_SWEEPS; sweep++) {
+      double change = 0;
+      for (int from = last - 1; from >= 0; from--) {
+        if (!sure[from]) {
+          continue;
+        }
+        double sum = 1;
+        double stay = 0;
+        for (int entry = matrix.rowStart(from); entry < matrix.rowEnd(from); entry++) {
+          int to = matrix.column(entry);
+          if (to == from) {
+            stay += matrix.chance(entry);
+          } else {
+            sum += matrix.chance(entry) * expected[to];
+          }
+        }
+        double value = sum / (1 - stay);
+        change = Math.max(change, Math.abs(value - expected[from]) / Math.max(1, value));
+        expected[from] = value;
+      }
+      if (change <= TOLERANCE) {
+        return sweep;
+      }
+    }
+    throw new IllegalStateException("The expected turns did not settle.");
+  }
+
+  /**
+   * The adjoint of expectedTurns: solve V[t] = [t is start] + sum of V[s] P(s, t), by
+   * Gauss-Seidel on the turns backwards, sweeping up from the first square.  The sum of
+   * the visits over every square but the last is the expected number of turns.
+   * @param start - the square the player starts on
+   * @return the expected number of turns that start on each square (1 for the last square, where the game ends).
+   */
+  public double[] expectedVisits(final int start) {
+    if (!sure[start]) {
+      throw new IllegalStateException("The game might never finish from square " + start + ".");
+    }
+    int size = matrix.size();
+    int[][] incoming = matrix.incoming();
+    int[] starts = incoming[0];
+    int[] sources = incoming[1];
+    double[] chances = new double[sources.length];
+    int[] fill = starts.clone();
+    for (int from = 0; from < matrix.last(); from++) {
+      for (int entry = matrix.rowStart(from); entry < matrix.rowEnd(from); entry++) {
+        chances[fill[matrix.column(entry)]++] = matrix.chance(entry);
+      }
+    }
+    double[] visits = new double[size];
+    for (int sweep = 1; sweep <= MAX_SWEEPS; sweep++) {
+      double change = 0;
+      for (int to = 0; to < size; to++) {
+        double sum = to == start ? 1 : 0;
+        double stay = 0;
+        for (int k = starts[to]; k < starts[to + 1]; k++) {
+          if (sources[k] == to) {
+            stay += chances[k];
+          } else {
+            sum += chances[k] * visits[sources[k]];
+          }
+        }
+        double value = sum / (1 - stay);
+        change = Math.max(change, Math.abs(value - visits[to]) / Math.max(1, value));
+        visits[to] = value;
+      }
+      if (change <= TOLERANCE) {
+        return visits;
+      }
+    }
+    throw new IllegalStateException("The expected visits did not settle.");
+  }
+
+  /**
+   * Push the chance of being on each square forward one turn at a time.
+   * @param start - the square the player starts on
+   * @param horizon - the last turn to work out
+   * @return the chance of having reached the last square by each turn from 0 to horizon.
+   */
+  public double[] finishedBy(final int start, final int horizon) {
+    Propagation player = new Propagation(matrix, finishable, start);
+    double[] finished = new double[horizon + 1];
+    finished[0] = player.finished();
+    for (int turn = 1; turn <= horizon; turn++) {
+      player.step();
+      finished[turn] = player.finished();
+    }
+    return finished;
+  }
+
+  /**
+   * @param horizon - the last turn to work out
+   * @return the chance of having finished by each turn from 0 to horizon, starting on the first square.
+   */
+  public double[] finishedBy(final int horizon) {
+    return finishedBy(0, horizon);
+  }
+}
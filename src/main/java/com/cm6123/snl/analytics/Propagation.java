@@ -0,0 +1,93 @@
+package com.cm6123.snl.analytics;
+
+import java.util.Arrays;
+
+/**
+ * Where one player might be after each turn: the chance of being on each square,
+ * pushed forward a turn at a time through a TransitionMatrix.
+ */
+final class Propagation {
+
+  /**
+   * The chain the player moves on.
+   */
+  private final TransitionMatrix matrix;
+  /**
+   * True for each square the last square can still be reached from.
+   */
+  private final boolean[] canFinish;
+  /**
+   * The chance of being on each square now.
+   */
+  private double[] now;
+  /**
+   * Space for the next turn.
+   */
+  private double[] next;
+  /**
+   * The number of turns taken.
+   */
+  private int turns;
+
+  /**
+   * @param aMatrix - the chain the player moves on
+   * @param finishable - true for each square the last square can be reached from
+   * @param start - the square the player starts on
+   */
+  Propagation(final TransitionMatrix aMatrix, final boolean[] finishable, final int start) {
+    matrix = aMatrix;
+    canFinish = finishable;
+    now = new double[aMatrix.size()];
+    next = new double[aMatrix.size()];
+    now[start] = 1;
+  }
+
+  /**
+   * Take one more turn.
+   */
+  void step() {
+    int last = matrix.last();
+    Arrays.fill(next, 0);
+    next[last] = now[last];
+    for (int from = 0; from < last; from++) {
+      double chance = now[from];
+      if (chance == 0) {
+        continue;
+      }
+      for (int entry = matrix.rowStart(from); entry < matrix.rowEnd(from); entry++) {
+        next[matrix.column(entry)] += chance * matrix.chance(entry);
+      }
+    }
+    double[] swap = now;
+    now = next;
+    next = swap;
+    turns++;
+  }
+
+  /**
+   * @return the number of turns taken.
+   */
+  int turns() {
+    return turns;
+  }
+
+  /**
+   * @return the chance of having finished by now.
+   */
+  double finished() {
+    return now[matrix.last()];
+  }
+
+  /**
+   * @return the chance of being somewhere the game can still finish from, but not finished yet.
+   */
+  double live() {
+    double live = 0;
+    for (int square = 0; square < matrix.last(); square++) {
+      if (canFinish[square]) {
+        live += now[square];
+      }
+    }
+    return live;
+  }
+}
@@ -0,0 +1,235 @@
+package com.cm6123.snl.analytics;
+
+import com.cm6123.snl.Board;
+import com.cm6123.snl.dice.DiceDistribution;
+
+/**
+ * How much each snake, ladder and boost on a Board adds to the expected length of a
+ * one player game, and how much putting one on each empty square would change it.
+ * Everything comes from one solve for the expected turns E and one adjoint solve for
+ * the expected visits V: moving the end of the turns that stop on a square from t to u
+ * changes the expected length by about (turns stopping on t) * (E[u] - E[t]).  The
+ * answers are first order, so they are exact for a square a player can stop on at
+ * most once, and otherwise rank the squares rather than replace a fresh solve.
+ */
+public final class SensitivityReport {
+
+  /**
+   * The board being reported on.
+   */
+  private final Board board;
+  /**
+   * The expected number of turns to finish from each square.
+   */
+  private final double[] expected;
+  /**
+   * The expected number of turns that start on each square.
+   */
+  private final double[] visits;
+  /**
+   * The expected number of turns that stop on each square, before any snake or ladder is followed.
+   */
+  private final double[] arrivals;
+  /**
+   * For each snake, ladder and boost square, the expected turns it adds; 0 elsewhere.
+   */
+  private final double[] contributions;
+  /**
+   * For each empty square, the expected turns a boost there would add; 0 elsewhere.
+   */
+  private final double[] boostEffects;
+
+  /**
+   * @param aBoard - the board
+   * @param faces - how many faces on each Dice
+   * @param count - how many Dice are rolled each turn
+   */
+  private SensitivityReport(final Board aBoard, final int faces, final int count) {
+    board = aBoard;
+    MarkovSolver solver = new MarkovSolver(TransitionMatrix.of(aBoard, faces, count));
+    expected = solver.expectedTurns();
+    visits = solver.expectedVisits(0);
+    int size = aBoard.size();
+    arrivals = new double[size];
+    contributions = new double[size];
+    boostEffects = new double[size];
+    accumulate(solver.getMatrix().getDice());
+  }
+
+  /**
+   * Work out the report for a board.
+   * @param board - the board
+   * @param faces - how many faces on each Dice
+   * @param count - how many Dice are rolled each turn
+   * @return the report.
+   * @throws IllegalStateException if the game might never finish.
+   */
+  public static SensitivityReport of(final Board board, final int faces, final int count) {
+    return new SensitivityReport(board, faces, count);
+  }
+
+  /**
+   * Follow every roll from every square a turn can start on, weighting it by the turns
+   * that start there, and total what each square it touches does to it.
+   * @param dice - the dice rolled each turn
+   */
+  private void accumulate(final DiceDistribution dice) {
+    int last = board.size() - 1;
+    boolean[] boost = new boolean[board.size()];
+    for (int square : board.boostSquares()) {
+      boost[square] = true;
+    }
+    for (int from = 0; from < last; from++) {
+      if (visits[from] == 0) {
+        continue;
+      }
+      for (int roll = dice.minSum(); roll <= dice.maxSum(); roll++) {
+        double weight = visits[from] * dice.probabilityOf(roll);
+        if (weight == 0) {
+          continue;
+        }
+        int end = board.landing(from, roll);
+        int stop = from + roll;
+        while (stop < last && boost[stop]) {
+          contributions[stop] += weight * (expected[end] - expected[stop]);
+          stop += roll;
+        }
+        if (stop >= last) {
+          continue;
+        }
+        arrivals[stop] += weight;
+        if (end != stop) {
+          contributions[stop] += weight * (expected[end] - expected[stop]);
+        } else {
+          int boosted = stop + roll;
+          while (boosted < last && boost[boosted]) {
+            boosted += roll;
+          }
+          int alternative = boosted < last ? board.destinationOf(boosted)
+                  : boosted == last || !board.isWinningOnly() ? last : from;
+          boostEffects[stop] += weight * (expected[alternative] - expected[stop]);
+        }
+      }
+    }
+  }
+
+  /**
+   * @return the board being reported on.
+   */
+  public Board getBoard() {
+    return board;
+  }
+
+  /**
+   * @return the expected number of turns to finish from the first square.
+   */
+  public double getExpectedTurnsFromStart() {
+    return expected[0];
+  }
+
+  /**
+   * @return the expected number of turns to finish from each square (a copy).
+   */
+  public double[] getExpectedTurns() {
+    return expected.clone();
+  }
+
+  /**
+   * @return the expected number of turns that start on each square (a copy).
+   */
+  public double[] getVisits() {
+    return visits.clone();
+  }
+
+  /**
+   * @return the expected number of turns that stop on each square, before any snake or ladder is followed (a copy).
+   */
+  public double[] getArrivals() {
+    return arrivals.clone();
+  }
+
+  /**
+   * @return for each snake head, ladder foot and boost square, about how many expected turns
+   *     it adds (negative if it shortens the game); 0 for every other square (a copy).
+   */
+  public double[] getContributions() {
+    return contributions.clone();
+  }
+
+  /**
+   * @param square - a snake head, ladder foot or boost square
+   * @return about how many expected turns it adds (negative if it shortens the game).
+   */
+  public double contributionOf(final int square) {
+    if (!isTaken(square)) {
+      throw new IllegalArgumentException("There is no snake, ladder or boost on square " + square + ".");
+    }
+    return contributions[square];
+  }
+
+  /**
+   * @return for each empty square, about how many expected turns a boost there would add;
+   *     0 for every other square (a copy).
+   */
+  public double[] getBoostEffects() {
+    return boostEffects.clone();
+  }
+
+  /**
+   * @param head - an empty square for the head
+   * @param tail - a lower square for the tail
+   * @return about how many expected turns the snake would add.
+   */
+  public double addingSnake(final int head, final int tail) {
+    if (tail >= head) {
+      throw new IllegalArgumentException("A snake's tail must be below its head.");
+    }
+    return addingJump(head, tail);
+  }
+
+  /**
+   * @param foot - an empty square for the foot
+   * @param top - a higher square for the top
+   * @return about how many expected turns the ladder would add (negative if it shortens the game).
+   */
+  public double addingLadder(final int foot, final int top) {
+    if (top <= foot) {
+      throw new IllegalArgumentException("A ladder's top must be above its foot.");
+    }
+    return addingJump(foot, top);
+  }
+
+  /**
+   * @param from - an empty square
+   * @param to - where a snake or ladder from it would go
+   * @return about how many expected turns it would add.
+   */
+  private double addingJump(final int from, final int to) {
+    if (from <= 0 || from >= board.size() - 1 || to < 0 || to >= board.size() || isTaken(from)) {
+      throw new IllegalArgumentException("Square " + from + " can't take a snake or ladder to " + to + ".");
+    }
+    if (arrivals[from] == 0) {
+      return 0;
+    }
+    return arrivals[from] * (expected[to] - expected[from]);
+  }
+
+  /**
+   * @param square - a square
+   * @return true if a snake, ladder or boost starts on it.
+   */
+  private boolean isTaken(final int square) {
+    if (square < 0 || square >= board.size()) {
+      throw new IllegalArgumentException("Square " + square + " is not on the board.");
+    }
+    if (board.destinationOf(square) != square) {
+      return true;
+    }
+    for (int boost : board.boostSquares()) {
+      if (boost == square) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
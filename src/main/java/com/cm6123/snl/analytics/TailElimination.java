@@ -0,0 +1,279 @@
+package com.cm6123.snl.analytics;
+
+import java.util.Arrays;
+
+/**
+ * An exact solve for the expected turns that takes advantage of almost every turn moving forward.
+ * Going from the last square down, each square's expected turns is written in terms of the
+ * squares above it, except where a turn goes back down (a snake).  The squares turns go back
+ * down to are kept as unknowns, so every square becomes a constant plus a multiple of each
+ * unknown; one small dense solve for the unknowns then gives every square.
+ * This is Woodbury's identity with one column per backwards square.
+ * After an edit, the squares above the highest changed turn are unchanged and are reused, and
+ * the earlier solve's arrays are recycled for the rows below it, so an edit allocates next to nothing.
+ * The rows take squares * (unknowns + 1) doubles.
+ */
+final class TailElimination {
+
+  /**
+   * The chain being solved.
+   */
+  private final TransitionMatrix matrix;
+  /**
+   * True for each square the game is sure to finish from.
+   */
+  private final boolean[] sure;
+  /**
+   * The squares turns go back down to, in ascending order: the unknowns.
+   */
+  private final int[] tails;
+  /**
+   * For each square, its place in tails, or -1.
+   */
+  private final int[] unknown;
+  /**
+   * For each square, the constant then the multiple of each unknown; null if not sure to finish.
+   */
+  private final double[][] rows;
+  /**
+   * The expected turns from each unknown square.
+   */
+  private final double[] tailValues;
+
+  /**
+   * Solve from nothing.
+   * @param aMatrix - the chain to solve
+   */
+  TailElimination(final TransitionMatrix aMatrix) {
+    this(aMatrix, null, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Solve, reusing what is unchanged from the solve of an earlier version of the layout.
+   * The earlier solve's rows are reused and overwritten, so it can't be used afterwards.
+   * @param aMatrix - the chain to solve
+   * @param previous - the solve of an earlier layout, or null; used up by this one
+   * @param highestChange - no row above this differs from the earlier layout
+   */
+  TailElimination(final TransitionMatrix aMatrix, final TailElimination previous, final int highestChange) {
+    matrix = aMatrix;
+    sure = aMatrix.finishesSurely();
+    int size = aMatrix.size();
+    unknown = new int[size];
+    Arrays.fill(unknown, -1);
+    int count = 0;
+    for (int from = 0; from < size; from++) {
+      if (!sure[from]) {
+        continue;
+      }
+      for (int entry = aMatrix.rowStart(from); entry < aMatrix.rowEnd(from); entry++) {
+        int to = aMatrix.column(entry);
+        if (to < from && unknown[to] < 0) {
+          unknown[to] = count++;
+        }
+      }
+    }
+    tails = new int[count];
+    count = 0;
+    for (int square = 0; square < size; square++) {
+      if (unknown[square] >= 0) {
+        unknown[square] = count;
+        tails[count++] = square;
+      }
+    }
+
+    rows = new double[size][];
+    int reuseAbove = reusableAbove(previous, highestChange);
+    for (int square = size - 1; square > reuseAbove; square--) {
+      rows[square] = remap(previous, previous.rows[square]);
+    }
+    double[][] spare = previous != null && previous.rows.length == size ? previous.rows : null;
+    for (int square = Math.min(reuseAbove, size - 1); square >= 0; square--) {
+      rows[square] = eliminate(square, spare != null ? spare[square] : null);
+    }
+    tailValues = solveTails();
+  }
+
+  /**
+   * @param previous - the solve of an earlier layout, or null
+   * @param highestChange - no row above this differs from the earlier layout
+   * @return the square above which every row of the previous solve still holds (-1 for all of them).
+   */
+  private int reusableAbove(final TailElimination previous, final int highestChange) {
+    if (previous == null
+            || previous.matrix.size() != matrix.size()
+            || !Arrays.equals(previous.sure, sure)) {
+      return matrix.size() - 1;
+    }
+    for (int from = Math.min(matrix.last() - 1, highestChange); from >= 0; from--) {
+      if (!sameRow(previous.matrix, from)) {
+        return from;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * @param other - another chain of the same size
+   * @param from - a square
+   * @return true if the square's turns are the same in both.
+   */
+  private boolean sameRow(final TransitionMatrix other, final int from) {
+    int start = matrix.rowStart(from);
+    int length = matrix.rowEnd(from) - start;
+    int otherStart = other.rowStart(from);
+    if (other.rowEnd(from) - otherStart != length) {
+      return false;
+    }
+    for (int k = 0; k < length; k++) {
+      if (matrix.column(start + k) != other.column(otherStart + k)
+              || matrix.chance(start + k) != other.chance(otherStart + k)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Move a row of an earlier solve onto this solve's unknowns.  The rows reused are above every
+   * change, so they only use unknowns both solves have.
+   * @param previous - the earlier solve
+   * @param row - one of its rows
+   * @return the row for this solve.
+   */
+  private double[] remap(final TailElimination previous, final double[] row) {
+    if (row == null || Arrays.equals(previous.tails, tails)) {
+      return row;
+    }
+    double[] moved = new double[tails.length + 1];
+    moved[0] = row[0];
+    for (int k = 0; k < previous.tails.length; k++) {
+      if (row[k + 1] != 0) {
+        moved[unknown[previous.tails[k]] + 1] = row[k + 1];
+      }
+    }
+    return moved;
+  }
+
+  /**
+   * @param from - a square below all of whose forward turns the rows are known
+   * @param spare - the square's row from an earlier solve, to be overwritten if it is the right size, or null
+   * @return the square's row, or null if it isn't sure to finish.
+   */
+  private double[] eliminate(final int from, final double[] spare) {
+    if (!sure[from]) {
+      return null;
+    }
+    double[] row;
+    if (spare != null && spare.length == tails.length + 1) {
+      row = spare;
+      Arrays.fill(row, 0);
+    } else {
+      row = new double[tails.length + 1];
+    }
+    if (from == matrix.last()) {
+      return row;
+    }
+    row[0] = 1;
+    double stay = 0;
+    for (int entry = matrix.rowStart(from); entry < matrix.rowEnd(from); entry++) {
+      int to = matrix.column(entry);
+      double chance = matrix.chance(entry);
+      if (to == from) {
+        stay += chance;
+      } else if (to < from) {
+        row[unknown[to] + 1] += chance;
+      } else {
+        double[] ahead = rows[to];
+        for (int k = 0; k < row.length; k++) {
+          row[k] += chance * ahead[k];
+        }
+      }
+    }
+    double scale = 1 / (1 - stay);
+    for (int k = 0; k < row.length; k++) {
+      row[k] *= scale;
+    }
+    return row;
+  }
+
+  /**
+   * Solve (I - C) x = a for the unknowns, where row i of C and a is the unknown square's own row,
+   * by Gaussian elimination with partial pivoting.
+   * @return the expected turns from each unknown square.
+   */
+  private double[] solveTails() {
+    int n = tails.length;
+    double[][] system = new double[n][n + 1];
+    for (int i = 0; i < n; i++) {
+      double[] row = rows[tails[i]];
+      for (int j = 0; j < n; j++) {
+        system[i][j] = (i == j ? 1 : 0) - row[j + 1];
+      }
+      system[i][n] = row[0];
+    }
+    for (int pivot = 0; pivot < n; pivot++) {
+      int best = pivot;
+      for (int i = pivot + 1; i < n; i++) {
+        if (Math.abs(system[i][pivot]) > Math.abs(system[best][pivot])) {
+          best = i;
+        }
+      }
+      double[] swap = system[pivot];
+      system[pivot] = system[best];
+      system[best] = swap;
+      double[] top = system[pivot];
+      for (int i = pivot + 1; i < n; i++) {
+        double factor = system[i][pivot] / top[pivot];
+        if (factor != 0) {
+          for (int j = pivot; j <= n; j++) {
+            system[i][j] -= factor * top[j];
+          }
+        }
+      }
+    }
+    double[] values = new double[n];
+    for (int i = n - 1; i >= 0; i--) {
+      double sum = system[i][n];
+      for (int j = i + 1; j < n; j++) {
+        sum -= system[i][j] * values[j];
+      }
+      values[i] = sum / system[i][i];
+    }
+    return values;
+  }
+
+  /**
+   * @param square - a square
+   * @return the expected turns to finish from it.
+   */
+  double expectedFrom(final int square) {
+    double[] row = rows[square];
+    if (row == null) {
+      return Double.POSITIVE_INFINITY;
+    }
+    double value = row[0];
+    for (int k = 0; k < tailValues.length; k++) {
+      value += row[k + 1] * tailValues[k];
+    }
+    return value;
+  }
+
+  /**
+   * @return the expected turns to finish from each square.
+   */
+  double[] expectedTurns() {
+    double[] expected = new double[rows.length];
+    for (int square = 0; square < rows.length; square++) {
+      expected[square] = expectedFrom(square);
+    }
+    return expected;
+  }
+
+  /**
+   * @return the number of unknowns in the dense solve.
+   */
+  int unknowns() {
+    return tails.length;
+  }
+}
@@ -0,0 +1,289 @@
+package com.cm6123.snl.analytics;
+
+import com.cm6123.snl.Board;
+import com.cm6123.snl.TurnGraph;
+import com.cm6123.snl.dice.DiceDistribution;
+
+import java.util.Arrays;
+
+/**
+ * One player's turn on a Board as a sparse Markov chain: the chance of going from each
+ * square to each other square in one turn with a given set of Dice.  The last square
+ * absorbs, so its row is empty.  Rows are stored compressed (CSR), with the chances to
+ * the same square added together.
+ */
+public final class TransitionMatrix {
+
+  /**
+   * The board the chain was built from.
+   */
+  private final Board board;
+  /**
+   * The dice rolled each turn.
+   */
+  private final DiceDistribution dice;
+  /**
+   * Where each row starts in columns and chances; one extra entry marks the end.
+   */
+  private final int[] rowStart;
+  /**
+   * The square each entry moves to.
+   */
+  private final int[] columns;
+  /**
+   * The chance of each entry.
+   */
+  private final double[] chances;
+  /**
+   * The same rows as a graph, sharing rowStart and columns.
+   */
+  private final TurnGraph graph;
+
+  /**
+   * @param aBoard - the board
+   * @param aDice - the dice rolled each turn
+   * @param starts - where each row starts
+   * @param someColumns - the square each entry moves to
+   * @param someChances - the chance of each entry
+   */
+  private TransitionMatrix(final Board aBoard,
+                           final DiceDistribution aDice,
+                           final int[] starts,
+                           final int[] someColumns,
+                           final double[] someChances) {
+    board = aBoard;
+    dice = aDice;
+    rowStart = starts;
+    columns = someColumns;
+    chances = someChances;
+    graph = new TurnGraph(starts, someColumns);
+  }
+
+  /**
+   * Build the chain for a board, following every boost, snake, ladder and the winning only rule.
+   * @param board - the board
+   * @param faces - how many faces on each Dice
+   * @param count - how many Dice are rolled each turn
+   * @return the chain.
+   */
+  public static TransitionMatrix of(final Board board, final int faces, final int count) {
+    DiceDistribution dice = DiceDistribution.of(faces, count);
+    int size = board.size();
+    int last = size - 1;
+    int rolls = dice.maxSum() - dice.minSum() + 1;
+    int[] starts = new int[size + 1];
+    int[] columns = new int[last * rolls];
+    double[] chances = new double[last * rolls];
+    int entries = 0;
+    for (int from = 0; from < last; from++) {
+      starts[from] = entries;
+      entries += fillRow(board, dice, from, columns, chances, entries);
+    }
+    starts[last] = entries;
+    starts[size] = entries;
+    return new TransitionMatrix(board, dice, starts,
+            Arrays.copyOf(columns, entries), Arrays.copyOf(chances, entries));
+  }
+
+  /**
+   * Build the chain for an edited version of this board, working out only the rows
+   * the edit can change and copying the rest.
+   * @param edited - the edited board, the same size as this one
+   * @param low - the first row the edit can change
+   * @param high - the last row the edit can change
+   * @return the chain for the edited board.
+   */
+  TransitionMatrix edited(final Board edited, final int low, final int high) {
+    if (edited.size() != size()) {
+      return of(edited, dice.getFaces(), dice.getCount());
+    }
+    int size = size();
+    int first = Math.max(0, low);
+    int end = Math.min(last() - 1, high);
+    if (first > end) {
+      return new TransitionMatrix(edited, dice, rowStart, columns, chances);
+    }
+    int rolls = dice.maxSum() - dice.minSum() + 1;
+    // work out the edited rows first, so the new arrays are made at their final size and copied into once
+    int[] windowColumns = new int[(end - first + 1) * rolls];
+    double[] windowChances = new double[windowColumns.length];
+    int[] windowStarts = new int[end - first + 2];
+    int used = 0;
+    for (int from = first; from <= end; from++) {
+      windowStarts[from - first] = used;
+      used += fillRow(edited, dice, from, windowColumns, windowChances, used);
+    }
+    windowStarts[end - first + 1] = used;
+
+    int before = rowStart[first];
+    int after = rowStart[end + 1];
+    int tail = rowStart[size] - after;
+    int[] starts = new int[size + 1];
+    int[] newColumns = new int[before + used + tail];
+    double[] newChances = new double[newColumns.length];
+    System.arraycopy(rowStart, 0, starts, 0, first);
+    System.arraycopy(columns, 0, newColumns, 0, before);
+    System.arraycopy(chances, 0, newChances, 0, before);
+    for (int from = first; from <= end; from++) {
+      starts[from] = before + windowStarts[from - first];
+    }
+    System.arraycopy(windowColumns, 0, newColumns, before, used);
+    System.arraycopy(windowChances, 0, newChances, before, used);
+    System.arraycopy(columns, after, newColumns, before + used, tail);
+    System.arraycopy(chances, after, newChances, before + used, tail);
+    int shift = before + used - after;
+    for (int from = end + 1; from <= size; from++) {
+      starts[from] = rowStart[from] + shift;
+    }
+    return new TransitionMatrix(edited, dice, starts, newColumns, newChances);
+  }
+
+  /**
+   * Work out one row, adding together the rolls that end on the same square.
+   * @param board - the board
+   * @param dice - the dice rolled each turn
+   * @param from - the square the turn starts on
+   * @param columns - where to put the squares
+   * @param chances - where to put their chances
+   * @param at - where the row starts in columns and chances
+   * @return the number of entries in the row.
+   */
+  private static int fillRow(final Board board,
+                             final DiceDistribution dice,
+                             final int from,
+                             final int[] columns,
+                             final double[] chances,
+                             final int at) {
+    int used = 0;
+    for (int roll = dice.minSum(); roll <= dice.maxSum(); roll++) {
+      double chance = dice.probabilityOf(roll);
+      if (chance == 0) {
+        continue;
+      }
+      int to = board.landing(from, roll);
+      int slot = 0;
+      while (slot < used && columns[at + slot] != to) {
+        slot++;
+      }
+      if (slot == used) {
+        columns[at + used] = to;
+        chances[at + used++] = chance;
+      } else {
+        chances[at + slot] += chance;
+      }
+    }
+    return used;
+  }
+
+  /**
+   * @return the board the chain was built from.
+   */
+  public Board getBoard() {
+    return board;
+  }
+
+  /**
+   * @return the dice rolled each turn.
+   */
+  public DiceDistribution getDice() {
+    return dice;
+  }
+
+  /**
+   * @return the number of squares.
+   */
+  public int size() {
+    return rowStart.length - 1;
+  }
+
+  /**
+   * @return the absorbing (winning) square.
+   */
+  public int last() {
+    return rowStart.length - 2;
+  }
+
+  /**
+   * @return the number of stored entries.
+   */
+  public int entries() {
+    return columns.length;
+  }
+
+  /**
+   * @param square - a square
+   * @return where its row starts.
+   */
+  int rowStart(final int square) {
+    return rowStart[square];
+  }
+
+  /**
+   * @param square - a square
+   * @return one past where its row ends.
+   */
+  int rowEnd(final int square) {
+    return rowStart[square + 1];
+  }
+
+  /**
+   * @param entry - an entry
+   * @return the square it moves to.
+   */
+  int column(final int entry) {
+    return columns[entry];
+  }
+
+  /**
+   * @param entry - an entry
+   * @return its chance.
+   */
+  double chance(final int entry) {
+    return chances[entry];
+  }
+
+  /**
+   * @param from - the square the turn starts on
+   * @param to - the square the turn ends on
+   * @return the chance of that turn.
+   */
+  public double chanceOf(final int from, final int to) {
+    double chance = 0;
+    for (int entry = rowStart[from]; entry < rowStart[from + 1]; entry++) {
+      if (columns[entry] == to) {
+        chance += chances[entry];
+      }
+    }
+    return chance;
+  }
+
+  /**
+   * @return true for each square from which the last square can be reached.
+   */
+  public boolean[] canFinish() {
+    return graph.canFinish();
+  }
+
+  /**
+   * @return true for each square from which the game is sure to finish (with probability 1),
+   *     because no square that can't finish is reachable from it.
+   */
+  public boolean[] finishesSurely() {
+    return graph.finishesSurely();
+  }
+
+  /**
+   * @return the squares and the turns between them, without the chances.
+   */
+  public TurnGraph getGraph() {
+    return graph;
+  }
+
+  /**
+   * The turns backwards: for each square, the squares a turn can come from.
+   * @return where each square's sources start (one extra entry marks the end), then the sources.
+   */
+  int[][] incoming() {
+    return graph.incoming();
+  }
+}
@@ -0,0 +1,71 @@
+package com.cm6123.snl.analytics;
+
+/**
+ * The exact chance of each player winning a game, and how long the game is expected to last.
+ */
+public final class WinOdds {
+
+  /**
+   * The chance of each player winning.
+   */
+  private final double[] wins;
+  /**
+   * The expected number of turns (moves by any player) left in the game.
+   */
+  private final double expectedTurns;
+  /**
+   * The chance that nobody had won when the solver stopped.
+   */
+  private final double unresolved;
+
+  /**
+   * @param someWins - the chance of each player winning
+   * @param turns - the expected number of turns left
+   * @param left - the chance nobody had won when the solver stopped
+   */
+  WinOdds(final double[] someWins, final double turns, final double left) {
+    wins = someWins;
+    expectedTurns = turns;
+    unresolved = left;
+  }
+
+  /**
+   * @return the number of players.
+   */
+  public int numberOfPlayers() {
+    return wins.length;
+  }
+
+  /**
+   * @param player - the index of a player
+   * @return the chance the player wins.
+   */
+  public double getWinProbability(final int player) {
+    return wins[player];
+  }
+
+  /**
+   * @return the expected number of turns (moves by any player) left in the game,
+   *     or infinity if the game might never end.
+   */
+  public double getExpectedTurns() {
+    return expectedTurns;
+  }
+
+  /**
+   * @return the chance that nobody wins, or that nobody had won by the solver's turn limit.
+   */
+  public double getUnresolved() {
+    return unresolved;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder text = new StringBuilder("WinOdds{wins=[");
+    for (int player = 0; player < wins.length; player++) {
+      text.append(player == 0 ? "" : ", ").append(wins[player]);
+    }
+    return text.append("], expectedTurns=").append(expectedTurns)
+            .append(", unresolved=").append(unresolved).append('}').toString();
+  }
+}
@@ -0,0 +1,169 @@
+package com.cm6123.snl.analytics;
+
+import com.cm6123.snl.Game;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Exact win chances for a game with several players taking turns in order.
+ * Each player's moves only depend on their own rolls, so their chances of having finished
+ * after each of their own turns are worked out separately (once per starting square) and
+ * combined round by round: the player in seat j of the turn order wins on round r if they
+ * finish on their r-th turn while everyone before them has not finished after r turns
+ * and everyone after them has not finished after r - 1.
+ * The work is linear in the number of rounds it takes for the result to settle.
+ */
+public final class WinProbabilitySolver {
+
+  /**
+   * The chance of the game still being undecided at which the rounds stop.
+   */
+  private static final double TOLERANCE = 1e-12;
+  /**
+   * The most rounds worked out unless set otherwise.
+   */
+  private static final int DEFAULT_MAX_ROUNDS = 100_000;
+  /**
+   * The most players the first-mover advantage is usually asked for.
+   */
+  private static final int USUAL_MAX_PLAYERS = 5;
+
+  /**
+   * The chain each player moves on.
+   */
+  private final TransitionMatrix matrix;
+  /**
+   * True for each square the last square can be reached from.
+   */
+  private final boolean[] canFinish;
+  /**
+   * The most rounds worked out.
+   */
+  private final int maxRounds;
+
+  /**
+   * @param aMatrix - the chain each player moves on
+   */
+  public WinProbabilitySolver(final TransitionMatrix aMatrix) {
+    this(aMatrix, DEFAULT_MAX_ROUNDS);
+  }
+
+  /**
+   * @param aMatrix - the chain each player moves on
+   * @param rounds - the most rounds to work out
+   */
+  public WinProbabilitySolver(final TransitionMatrix aMatrix, final int rounds) {
+    if (rounds < 1) {
+      throw new IllegalArgumentException("At least one round must be worked out.");
+    }
+    matrix = aMatrix;
+    canFinish = aMatrix.canFinish();
+    maxRounds = rounds;
+  }
+
+  /**
+   * @param players - the number of players, all on the first square with player 0 to move
+   * @return the odds of a new game.
+   */
+  public WinOdds solve(final int players) {
+    return solve(new int[players], 0);
+  }
+
+  /**
+   * @param game - a game in progress on the board the matrix was built from
+   * @return the odds from where the game is now.
+   */
+  public WinOdds solve(final Game game) {
+    if (game.getBoard().size() != matrix.size()) {
+      throw new IllegalArgumentException("The game is on a different board.");
+    }
+    int[] positions = new int[game.numberOfPlayers()];
+    for (int player = 0; player < positions.length; player++) {
+      positions[player] = game.positionOf(player);
+    }
+    return solve(positions, game.getCurrentPlayerIndex());
+  }
+
+  /**
+   * @param positions - the square each player is on
+   * @param currentPlayer - the index of the player to move next
+   * @return the odds from that state.
+   */
+  public WinOdds solve(final int[] positions, final int currentPlayer) {
+    int players = positions.length;
+    if (players < 1 || currentPlayer < 0 || currentPlayer >= players) {
+      throw new IllegalArgumentException("There must be a player to move.");
+    }
+    Map<Integer, Propagation> byStart = new HashMap<>();
+    Propagation[] seats = new Propagation[players];
+    for (int seat = 0; seat < players; seat++) {
+      int square = positions[(currentPlayer + seat) % players];
+      if (square < 0 || square >= matrix.size()) {
+        throw new IllegalArgumentException("Square " + square + " is not on the board.");
+      }
+      if (square == matrix.last()) {
+        throw new IllegalStateException("The game is already over.");
+      }
+      seats[seat] = byStart.computeIfAbsent(square, start -> new Propagation(matrix, canFinish, start));
+    }
+    Propagation[] distinct = byStart.values().toArray(new Propagation[0]);
+
+    double[] wins = new double[players];
+    double[] before = new double[players];
+    double[] after = new double[players];
+    double[] notYet = new double[players + 1];
+    double expected = 0;
+    double decided = 0;
+    for (int round = 1; round <= maxRounds; round++) {
+      for (int seat = 0; seat < players; seat++) {
+        before[seat] = seats[seat].finished();
+      }
+      boolean settled = true;
+      for (Propagation start : distinct) {
+        start.step();
+        settled &= start.live() <= TOLERANCE;
+      }
+      for (int seat = 0; seat < players; seat++) {
+        after[seat] = seats[seat].finished();
+      }
+      // chance that nobody after each seat has finished within round - 1 turns
+      notYet[players] = 1;
+      for (int seat = players - 1; seat >= 0; seat--) {
+        notYet[seat] = notYet[seat + 1] * (1 - before[seat]);
+      }
+      double ahead = 1;
+      for (int seat = 0; seat < players; seat++) {
+        double win = (after[seat] - before[seat]) * ahead * notYet[seat + 1];
+        wins[(currentPlayer + seat) % players] += win;
+        expected += win * ((double) (round - 1) * players + seat + 1);
+        decided += win;
+        ahead *= 1 - after[seat];
+      }
+      if (settled || 1 - decided <= TOLERANCE) {
+        break;
+      }
+    }
+    double unresolved = Math.max(0, 1 - decided);
+    return new WinOdds(wins, unresolved > Math.sqrt(TOLERANCE) ? Double.POSITIVE_INFINITY : expected, unresolved);
+  }
+
+  /**
+   * @param players - the number of players
+   * @return how much more likely the first player is to win a new game than a fair share.
+   */
+  public double firstMoverAdvantage(final int players) {
+    return solve(players).getWinProbability(0) - 1.0 / players;
+  }
+
+  /**
+   * @return the first-mover advantage for games of 1 to 5 players, at index players - 1.
+   */
+  public double[] firstMoverAdvantages() {
+    double[] advantages = new double[USUAL_MAX_PLAYERS];
+    for (int players = 1; players <= USUAL_MAX_PLAYERS; players++) {
+      advantages[players - 1] = firstMoverAdvantage(players);
+    }
+    return advantages;
+  }
+}
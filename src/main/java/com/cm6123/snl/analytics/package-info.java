@@ -0,0 +1,4 @@
+/**
+ * Exact analysis of Snakes and Ladders layouts as Markov chains.
+ */
+package com.cm6123.snl.analytics;
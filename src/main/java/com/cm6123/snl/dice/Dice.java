@@ -8,4 +8,14 @@ public interface Dice {
    * @return the result of rolling the dice
    */
   Integer roll();
+
+  /**
+   * Roll the dice without boxing the result.
+   * Dice that can roll straight to an int should override this.
+   *
+   * @return the result of rolling the dice
+   */
+  default int rollInt() {
+    return roll();
+  }
 }
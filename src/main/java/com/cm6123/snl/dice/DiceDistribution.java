@@ -0,0 +1,272 @@
+package com.cm6123.snl.dice;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The exact distribution of rolling a set of fair Dice: the chance of each sum,
+ * and of each sum coming from Dice that all show the same value.
+ * It is worked out once per (faces, count) by convolution and can be sampled
+ * in constant time with Walker's alias method, whatever the number of Dice.
+ */
+public final class DiceDistribution {
+
+  /**
+   * Distributions already worked out, keyed by faces and count.
+   */
+  private static final ConcurrentMap<Long, DiceDistribution> CACHE = new ConcurrentHashMap<>();
+
+  /**
+   * How many faces each Dice has.
+   */
+  private final int faces;
+  /**
+   * How many Dice are in the set.
+   */
+  private final int count;
+  /**
+   * The chance of each sum, indexed by sum - count.
+   */
+  private final double[] sumProbability;
+  /**
+   * The chance of each sum with all the Dice the same, indexed by sum - count.
+   */
+  private final double[] sameProbability;
+  /**
+   * Each possible outcome, packed as in DiceSet.rollPacked.
+   */
+  private final int[] outcomes;
+  /**
+   * The chance of keeping the outcome in each alias table column.
+   */
+  private final double[] keep;
+  /**
+   * The outcome used instead when a column isn't kept.
+   */
+  private final int[] alias;
+
+  private DiceDistribution(final int howManyFaces, final int howManyDice) {
+    faces = howManyFaces;
+    count = howManyDice;
+    sumProbability = sumProbabilities(howManyFaces, howManyDice);
+    sameProbability = new double[sumProbability.length];
+    if (howManyDice > 1) {
+      // 1 in faces^count, which is too small for a double (so 0) once the set is big enough
+      double oneRoll = Math.pow(howManyFaces, -howManyDice);
+      for (int face = 1; face <= howManyFaces; face++) {
+        sameProbability[face * howManyDice - howManyDice] = oneRoll;
+      }
+    }
+    int possible = 0;
+    for (int i = 0; i < sumProbability.length; i++) {
+      possible += (canDiffer(i) ? 1 : 0) + (howManyDice > 1 && i % howManyDice == 0 ? 1 : 0);
+    }
+
+    outcomes = new int[possible];
+    double[] chances = new double[possible];
+    int next = 0;
+    for (int i = 0; i < sumProbability.length; i++) {
+      int sum = i + howManyDice;
+      if (canDiffer(i)) {
+        outcomes[next] = sum << 1;
+        chances[next++] = Math.max(0, sumProbability[i] - sameProbability[i]);
+      }
+      if (howManyDice > 1 && i % howManyDice == 0) {
+        outcomes[next] = (sum << 1) | 1;
+        chances[next++] = sameProbability[i];
+      }
+    }
+    keep = new double[possible];
+    alias = new int[possible];
+    buildAliasTable(chances);
+  }
+
+  /**
+   * Whether a sum can be rolled without all the Dice the same.  Only the lowest sum
+   * (all ones) and the highest (all the top face) can't, unless there is one Dice.
+   * This is decided from the sum, not the chances, as those are rounded.
+   *
+   * @param index - a sum less count
+   * @return true if some roll with different Dice makes the sum.
+   */
+  private boolean canDiffer(final int index) {
+    return count == 1 || (index != 0 && index != sumProbability.length - 1);
+  }
+
+  /**
+   * Get the distribution for a set of Dice, working it out the first time.
+   *
+   * @param faces - how many faces on each Dice
+   * @param count - how many Dice in the set
+   * @return the shared distribution.
+   */
+  public static DiceDistribution of(final int faces, final int count) {
+    if (faces < 1 || count < 1) {
+      throw new IllegalArgumentException("A set needs at least one Dice with at least one face.");
+    }
+    return CACHE.computeIfAbsent(((long) faces << Integer.SIZE) | count,
+        key -> new DiceDistribution(faces, count));
+  }
+
+  /**
+   * @return how many faces each Dice has.
+   */
+  public int getFaces() {
+    return faces;
+  }
+
+  /**
+   * @return how many Dice are in the set.
+   */
+  public int getCount() {
+    return count;
+  }
+
+  /**
+   * @return the smallest possible sum.
+   */
+  public int minSum() {
+    return count;
+  }
+
+  /**
+   * @return the largest possible sum.
+   */
+  public int maxSum() {
+    return faces * count;
+  }
+
+  /**
+   * @param sum - a sum of the Dice
+   * @return the chance of rolling that sum.
+   */
+  public double probabilityOf(final int sum) {
+    if (sum < minSum() || sum > maxSum()) {
+      return 0;
+    }
+    return sumProbability[sum - count];
+  }
+
+  /**
+   * @param sum - a sum of the Dice
+   * @return the chance of rolling that sum with all the Dice the same (never for a single Dice).
+   */
+  public double probabilityAllTheSame(final int sum) {
+    if (sum < minSum() || sum > maxSum()) {
+      return 0;
+    }
+    return sameProbability[sum - count];
+  }
+
+  /**
+   * Roll the whole set at once with a single call to the generator.
+   *
+   * @param random - the generator to use
+   * @return the result packed as in DiceSet.rollPacked.
+   */
+  public int sample(final SplittableRandom random) {
+    double scaled = random.nextDouble() * keep.length;
+    int column = Math.min((int) scaled, keep.length - 1);
+    return scaled - column < keep[column] ? outcomes[column] : alias[column];
+  }
+
+  /**
+   * @return how many possible outcomes there are (a sum, and whether the Dice were all the same).
+   */
+  int possibleOutcomes() {
+    return outcomes.length;
+  }
+
+  /**
+   * Work out the chance of each sum by convolution.  While the number of rolls fits in a long,
+   * the ways of rolling each sum are counted in whole numbers and divided by the total at the end,
+   * so the chances are as exact as a double allows.  Bigger sets convolve the chances themselves,
+   * dividing by the faces at each step, so nothing overflows however many Dice there are
+   * (the chances of the sums far out in the tails just come out as 0).
+   *
+   * @param faces - how many faces on each Dice
+   * @param count - how many Dice in the set
+   * @return the chance of each sum, indexed by sum - count.
+   */
+  private static double[] sumProbabilities(final int faces, final int count) {
+    boolean fitsLong = count * (Math.log(faces) / Math.log(2)) < Long.SIZE - 2;
+    if (fitsLong) {
+      long[] ways = {1};
+      long total = 1;
+      for (int d = 0; d < count; d++) {
+        long[] next = new long[ways.length + faces - 1];
+        for (int i = 0; i < ways.length; i++) {
+          for (int f = 0; f < faces; f++) {
+            next[i + f] += ways[i];
+          }
+        }
+        ways = next;
+        total *= faces;
+      }
+      double[] chances = new double[ways.length];
+      for (int i = 0; i < ways.length; i++) {
+        chances[i] = (double) ways[i] / total;
+      }
+      return chances;
+    }
+    double[] chances = {1};
+    for (int d = 0; d < count; d++) {
+      double[] next = new double[chances.length + faces - 1];
+      for (int i = 0; i < chances.length; i++) {
+        double share = chances[i] / faces;
+        if (share == 0) {
+          continue;
+        }
+        for (int f = 0; f < faces; f++) {
+          next[i + f] += share;
+        }
+      }
+      chances = next;
+    }
+    return chances;
+  }
+
+  /**
+   * Vose's version of Walker's alias method.
+   */
+  private void buildAliasTable(final double[] chances) {
+    int n = chances.length;
+    double[] scaled = new double[n];
+    Deque<Integer> small = new ArrayDeque<>();
+    Deque<Integer> large = new ArrayDeque<>();
+    for (int i = 0; i < n; i++) {
+      scaled[i] = chances[i] * n;
+      if (scaled[i] < 1.0) {
+        small.push(i);
+      } else {
+        large.push(i);
+      }
+    }
+    while (!small.isEmpty() && !large.isEmpty()) {
+      int less = small.pop();
+      int more = large.pop();
+      keep[less] = scaled[less];
+      alias[less] = outcomes[more];
+      scaled[more] = scaled[more] + scaled[less] - 1.0;
+      if (scaled[more] < 1.0) {
+        small.push(more);
+      } else {
+        large.push(more);
+      }
+    }
+    // whatever is left is 1 give or take rounding
+    while (!large.isEmpty()) {
+      int column = large.pop();
+      keep[column] = 1.0;
+      alias[column] = outcomes[column];
+    }
+    while (!small.isEmpty()) {
+      int column = small.pop();
+      keep[column] = 1.0;
+      alias[column] = outcomes[column];
+    }
+  }
+}
@@ -1,14 +1,22 @@
 package com.cm6123.snl.dice;
 
-import java.util.Iterator;
-import java.util.List;
+import java.util.SplittableRandom;
 
 public class DiceSet {
 
   /**
-   * List of Dice objects in the set.
+   * The Dice objects in the set.
    */
-  private List<Dice> dice;
+  private final Dice[] dice;
+  /**
+   * For a set of several random Dice, the distribution of the whole set,
+   * which is sampled instead of rolling each Dice.  Null otherwise.
+   */
+  private final DiceDistribution distribution;
+  /**
+   * The generator used to sample the distribution.
+   */
+  private final SplittableRandom random;
 
   /**
    * Construct a set of Dice.  Each dice has the same number of faces.
@@ -22,7 +30,8 @@ public class DiceSet {
 
   /**
    * Construct a set of Dice providing a Factory to control the Dice.
-   * Default factory is a RandomDiceFactory.
+   * Default factory is a RandomDiceFactory.  With a RandomDiceFactory and more than one Dice,
+   * the set is rolled with one sample of its exact distribution rather than Dice by Dice.
    * @param faces - how many faces on each Dice.
    * @param count - how many dice.
    * @param factory - factory that constrains the type of Dice included
@@ -31,7 +40,14 @@ public class DiceSet {
                  final Integer count,
                  final DiceFactory factory) {
 
-    dice = factory.makeDice(faces, count);
+    dice = factory.makeDice(faces, count).toArray(new Dice[0]);
+    if (factory instanceof RandomDiceFactory && count > 1) {
+      distribution = DiceDistribution.of(faces, count);
+      random = ((RandomDiceFactory) factory).newGenerator();
+    } else {
+      distribution = null;
+      random = null;
+    }
 
   }
 
@@ -40,30 +56,81 @@ public class DiceSet {
    * @return a DiceResult object
    */
   public DiceResult roll() {
+    int packed = rollPacked();
+    return new DiceResult(packedValue(packed), packedAllTheSame(packed));
+  }
 
-    if (dice.size() == 1) {
-      return new DiceResult(dice.get(0).roll(), Boolean.FALSE);
+  /**
+   * Roll the set and pack the result into one int, without creating any objects.
+   * The sum is in the high bits and the lowest bit is set if all the Dice were the same
+   * (never for a set of one, as with roll()).  Use packedValue and packedAllTheSame to read it.
+   * @return the packed result.
+   */
+  public int rollPacked() {
+    if (distribution != null) {
+      return distribution.sample(random);
+    }
+    int value = dice[0].rollInt();
+    if (dice.length == 1) {
+      return value << 1;
     }
 
-    Boolean isDouble = true;
-    Integer value = 0;
-    Integer lastValue = 0;
+    int same = 1;
+    int first = value;
+    for (int d = 1; d < dice.length; d++) {
+      int nextValue = dice[d].rollInt();
+      same &= nextValue == first ? 1 : 0;
+      value += nextValue;
+    }
+    return (value << 1) | same;
+  }
 
-    Iterator<Dice> dices = dice.iterator();
-    Dice firstDice = dices.next();
-    value += firstDice.roll();
-    lastValue = value;
+  /**
+   * Roll the set and return only the sum.
+   * @return the numerical sum of the Dice face values.
+   */
+  public int rollInt() {
+    if (distribution != null) {
+      return packedValue(distribution.sample(random));
+    }
+    int value = 0;
+    for (Dice aDice : dice) {
+      value += aDice.rollInt();
+    }
+    return value;
+  }
 
-    while (dices.hasNext()) {
-      Dice aDice = dices.next();
-      Integer nextValue = aDice.roll();
-      isDouble = isDouble && (lastValue.equals(nextValue));
-      lastValue = nextValue;
-      value += nextValue;
+  /**
+   * Roll the set once for every slot in the buffer and store each sum.
+   * @param out - the buffer to fill
+   */
+  public void rollInto(final int[] out) {
+    for (int i = 0; i < out.length; i++) {
+      out[i] = rollInt();
     }
+  }
 
-    return new DiceResult(value, isDouble);
+  /**
+   * @return the exact distribution of this set if it rolls by sampling it, otherwise null.
+   */
+  public DiceDistribution getDistribution() {
+    return distribution;
+  }
 
+  /**
+   * @param packed - a result from rollPacked
+   * @return the sum of the Dice.
+   */
+  public static int packedValue(final int packed) {
+    return packed >>> 1;
+  }
+
+  /**
+   * @param packed - a result from rollPacked
+   * @return true if all the Dice rolled the same value.
+   */
+  public static boolean packedAllTheSame(final int packed) {
+    return (packed & 1) != 0;
   }
 
 }
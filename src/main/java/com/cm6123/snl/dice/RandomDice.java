@@ -1,10 +1,16 @@
 package com.cm6123.snl.dice;
 
+import java.util.SplittableRandom;
+
 public class RandomDice implements Dice {
   /**
    * the number of faces on the Dice.
    */
-  private Integer faces;
+  private final int faces;
+  /**
+   * The generator this Dice rolls with.  Not shared, so rolling needs no locking.
+   */
+  private final SplittableRandom random;
 
   /**
    * Create a Dice with the specified number of faces.
@@ -12,7 +18,19 @@ public class RandomDice implements Dice {
    * @param howManyFaces number of faces on the dice
    */
   public RandomDice(final Integer howManyFaces) {
+    this(howManyFaces, new SplittableRandom());
+  }
+
+  /**
+   * Create a Dice with the specified number of faces that rolls with the given generator.
+   * Dice built from generators with the same seed roll the same values.
+   *
+   * @param howManyFaces number of faces on the dice
+   * @param aRandom the generator to roll with, which must not be used by other threads
+   */
+  public RandomDice(final Integer howManyFaces, final SplittableRandom aRandom) {
     this.faces = howManyFaces;
+    this.random = aRandom;
   }
 
   /**
@@ -20,6 +38,15 @@ public class RandomDice implements Dice {
    * @return a number between 1 and the number of faces inclusive.
    */
   public Integer roll() {
-    return Long.valueOf(1 + Math.round(Math.floor(Math.random() * faces))).intValue();
+    return rollInt();
+  }
+
+  /**
+   * roll the dice without boxing.
+   * @return a number between 1 and the number of faces inclusive.
+   */
+  @Override
+  public int rollInt() {
+    return 1 + random.nextInt(faces);
   }
 }
@@ -2,17 +2,90 @@ package com.cm6123.snl.dice;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.SplittableRandom;
 
+/**
+ * Makes Dice that roll with their own SplittableRandom, split from one seeded generator.
+ * A factory (and the dice it makes) should only be used by one thread at a time;
+ * use forStream to give each thread or task its own.
+ */
 public final class RandomDiceFactory implements DiceFactory {
 
+  /**
+   * Odd constant used to spread stream numbers across seeds (as in SplitMix64).
+   */
+  private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+  /**
+   * The seed this factory was made with.
+   */
+  private final long seed;
+  /**
+   * The generator the dice generators are split from.
+   */
+  private final SplittableRandom generator;
+
+  /**
+   * Create a factory with a seed that is different every time.
+   */
+  public RandomDiceFactory() {
+    this(new SplittableRandom().nextLong());
+  }
+
+  /**
+   * Create a factory whose dice always roll the same values for the same seed.
+   *
+   * @param aSeed - the seed
+   */
+  public RandomDiceFactory(final long aSeed) {
+    seed = aSeed;
+    generator = new SplittableRandom(aSeed);
+  }
+
+  /**
+   * Get an independent factory for one stream of work, e.g. one task of a simulation.
+   * The result depends only on this factory's seed and the stream number,
+   * not on which thread asks or in what order, so runs repeat whatever the thread count.
+   *
+   * @param stream - the number of the stream
+   * @return a new factory for that stream.
+   */
+  public RandomDiceFactory forStream(final long stream) {
+    return new RandomDiceFactory(mix(seed + GOLDEN_GAMMA * (stream + 1)));
+  }
+
+  /**
+   * @return the seed this factory was made with.
+   */
+  public long getSeed() {
+    return seed;
+  }
+
+  /**
+   * @return a new generator split from this factory's generator.
+   */
+  public SplittableRandom newGenerator() {
+    return generator.split();
+  }
+
   @Override
   public List<Dice> makeDice(final Integer faces, final Integer count) {
     List<Dice> dices = new ArrayList<>();
 
     for (Integer value = 0; value < count; value++) {
-      dices.add(new RandomDice(faces));
+      dices.add(new RandomDice(faces, newGenerator()));
     }
 
     return dices;
   }
+
+  /**
+   * The SplitMix64 finaliser, which turns nearby numbers into unrelated seeds.
+   */
+  private static long mix(final long value) {
+    long z = value;
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
 }
@@ -0,0 +1,105 @@
+package com.cm6123.snl.dice;
+
+import java.nio.MappedByteBuffer;
+
+/**
+ * The layout of a roll tape file, shared by the recorder and the replayer.
+ * A 24 byte header (magic, faces, bits per roll, dice per set, number of rolls)
+ * is followed by the rolls, each stored as roll - 1 in just enough bits for the faces,
+ * packed into longs.  The file may run on past the last roll, as the recorder grows it in steps;
+ * only the number of rolls in the header count.  A tape is mapped in one piece, so the whole file must fit in
+ * Integer.MAX_VALUE bytes; that caps it at maxRolls(bits) rolls (over 2 billion d6 rolls).
+ */
+final class RollTape {
+
+  /**
+   * Marks a file as a roll tape ("SNLT").
+   */
+  static final int MAGIC = 0x534E4C54;
+  /**
+   * Where the number of faces is stored.
+   */
+  static final int FACES_OFFSET = 4;
+  /**
+   * Where the bits per roll are stored.
+   */
+  static final int BITS_OFFSET = 8;
+  /**
+   * Where the number of Dice in each set is stored.
+   */
+  static final int COUNT_OF_DICE_OFFSET = 12;
+  /**
+   * Where the number of rolls is stored.
+   */
+  static final int COUNT_OFFSET = 16;
+  /**
+   * Where the rolls start.
+   */
+  static final int HEADER_SIZE = 24;
+
+  /**
+   * Default constructor does nothing.
+   */
+  private RollTape() {
+    //do nothing
+  }
+
+  /**
+   * @param faces - the number of faces on the Dice
+   * @return the bits needed to store one roll.
+   */
+  static int bitsPerRoll(final int faces) {
+    return Math.max(1, Integer.SIZE - Integer.numberOfLeadingZeros(faces - 1));
+  }
+
+  /**
+   * @param rolls - a number of rolls
+   * @param bits - bits per roll
+   * @return the size of a file holding that many rolls.
+   */
+  static long fileSize(final long rolls, final int bits) {
+    long words = (rolls * bits + Long.SIZE - 1) / Long.SIZE;
+    return HEADER_SIZE + words * Long.BYTES + Long.BYTES;
+  }
+
+  /**
+   * @param bits - bits per roll
+   * @return the most rolls a tape can hold, keeping the file within one mapping.
+   */
+  static long maxRolls(final int bits) {
+    long words = (Integer.MAX_VALUE - HEADER_SIZE) / Long.BYTES - 1;
+    return words * Long.SIZE / bits;
+  }
+
+  /**
+   * Write roll number index, which must be below maxRolls(bits).
+   */
+  static void write(final MappedByteBuffer tape, final long index, final int bits, final int roll) {
+    long bit = index * bits;
+    int word = HEADER_SIZE + (int) (bit / Long.SIZE) * Long.BYTES;
+    int shift = (int) (bit % Long.SIZE);
+    long mask = (1L << bits) - 1;
+    long value = (roll - 1) & mask;
+    tape.putLong(word, (tape.getLong(word) & ~(mask << shift)) | (value << shift));
+    int spill = shift + bits - Long.SIZE;
+    if (spill > 0) {
+      int nextWord = word + Long.BYTES;
+      tape.putLong(nextWord, (tape.getLong(nextWord) & ~((1L << spill) - 1)) | (value >>> (bits - spill)));
+    }
+  }
+
+  /**
+   * Read roll number index, which must be below maxRolls(bits).
+   */
+  static int read(final MappedByteBuffer tape, final long index, final int bits) {
+    long bit = index * bits;
+    int word = HEADER_SIZE + (int) (bit / Long.SIZE) * Long.BYTES;
+    int shift = (int) (bit % Long.SIZE);
+    long value = tape.getLong(word) >>> shift;
+    int spill = shift + bits - Long.SIZE;
+    if (spill > 0) {
+      value |= tape.getLong(word + Long.BYTES) << (bits - spill);
+    }
+    return (int) (value & ((1L << bits) - 1)) + 1;
+  }
+}
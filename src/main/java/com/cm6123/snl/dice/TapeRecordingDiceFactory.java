@@ -0,0 +1,170 @@
+package com.cm6123.snl.dice;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Makes Dice that roll with another factory's Dice and record every roll,
+ * in order, to a memory-mapped tape file that TapeReplayDiceFactory can play back.
+ * All the Dice it makes must have the same number of faces and come in sets of
+ * the same size.  A tape holds at most RollTape.maxRolls rolls (the file is mapped
+ * in one piece), after which recording fails.
+ */
+public final class TapeRecordingDiceFactory implements DiceFactory, Closeable {
+
+  /**
+   * How many rolls the tape grows by when it is full.
+   */
+  private static final long GROWTH = 1 << 20;
+
+  /**
+   * Makes the Dice whose rolls are recorded.
+   */
+  private final DiceFactory source;
+  /**
+   * The open tape file.
+   */
+  private final FileChannel channel;
+  /**
+   * The mapped part of the tape.
+   */
+  private MappedByteBuffer tape;
+  /**
+   * How many rolls fit in the mapped part.
+   */
+  private long capacity;
+  /**
+   * How many rolls have been recorded.
+   */
+  private long rolls;
+  /**
+   * The number of faces on the Dice, 0 until the first Dice are made.
+   */
+  private int faces;
+  /**
+   * Bits used for each roll.
+   */
+  private int bits;
+  /**
+   * The number of Dice in each set made.
+   */
+  private int diceCount;
+
+  /**
+   * Start a new tape, replacing any file already there.
+   *
+   * @param file - where to write the tape
+   * @param aSource - makes the Dice whose rolls are recorded
+   * @throws IOException - if the file can't be created
+   */
+  public TapeRecordingDiceFactory(final Path file, final DiceFactory aSource) throws IOException {
+    source = aSource;
+    channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+  }
+
+  @Override
+  public synchronized List<Dice> makeDice(final Integer howManyFaces, final Integer count) {
+    if (faces == 0) {
+      faces = howManyFaces;
+      diceCount = count;
+      bits = RollTape.bitsPerRoll(faces);
+      remap(Math.min(GROWTH, RollTape.maxRolls(bits)));
+      tape.putInt(0, RollTape.MAGIC);
+      tape.putInt(RollTape.FACES_OFFSET, faces);
+      tape.putInt(RollTape.BITS_OFFSET, bits);
+      tape.putInt(RollTape.COUNT_OF_DICE_OFFSET, diceCount);
+    } else if (faces != howManyFaces) {
+      throw new IllegalArgumentException("This tape records Dice with " + faces + " faces.");
+    } else if (diceCount != count) {
+      throw new IllegalArgumentException("This tape records sets of " + diceCount + " Dice.");
+    }
+    List<Dice> dices = new ArrayList<>();
+    for (Dice aDice : source.makeDice(howManyFaces, count)) {
+      dices.add(new RecordingDice(aDice));
+    }
+    return dices;
+  }
+
+  /**
+   * @return how many rolls have been recorded.
+   */
+  public synchronized long getRollCount() {
+    return rolls;
+  }
+
+  /**
+   * Write the tape out.  The file isn't trimmed to the rolls recorded, as a file can't be
+   * truncated while it is still mapped on some systems (Windows), and a mapping is only
+   * released when the buffer is garbage collected.  The header says how many rolls there are,
+   * so the unused end of the last mapping (at most GROWTH rolls) is just ignored on replay.
+   *
+   * @throws IOException - if the file can't be written
+   */
+  @Override
+  public synchronized void close() throws IOException {
+    if (tape != null) {
+      tape.force();
+      tape = null;
+    }
+    channel.close();
+  }
+
+  private synchronized void record(final int roll) {
+    if (tape == null) {
+      throw new IllegalStateException("The tape is closed.");
+    }
+    if (rolls == capacity) {
+      long limit = RollTape.maxRolls(bits);
+      if (capacity == limit) {
+        throw new IllegalStateException("The tape is full after " + limit + " rolls.");
+      }
+      remap(Math.min(capacity + GROWTH, limit));
+    }
+    RollTape.write(tape, rolls, bits, roll);
+    rolls++;
+    tape.putLong(RollTape.COUNT_OFFSET, rolls);
+  }
+
+  private void remap(final long newCapacity) {
+    try {
+      tape = channel.map(FileChannel.MapMode.READ_WRITE, 0, RollTape.fileSize(newCapacity, bits));
+      capacity = newCapacity;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * A Dice that records each roll of another Dice.
+   */
+  private final class RecordingDice implements Dice {
+    /**
+     * The Dice being recorded.
+     */
+    private final Dice dice;
+
+    RecordingDice(final Dice aDice) {
+      dice = aDice;
+    }
+
+    @Override
+    public Integer roll() {
+      return rollInt();
+    }
+
+    @Override
+    public int rollInt() {
+      int value = dice.rollInt();
+      record(value);
+      return value;
+    }
+  }
+}
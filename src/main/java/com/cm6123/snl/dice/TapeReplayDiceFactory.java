@@ -0,0 +1,138 @@
+package com.cm6123.snl.dice;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Makes Dice that play back a tape written by TapeRecordingDiceFactory.
+ * The Dice share the tape, so rolling them in the same order as when it was
+ * recorded gives the same values, with no random numbers involved.
+ */
+public final class TapeReplayDiceFactory implements DiceFactory, Closeable {
+
+  /**
+   * The open tape file.
+   */
+  private final FileChannel channel;
+  /**
+   * The mapped tape.
+   */
+  private final MappedByteBuffer tape;
+  /**
+   * The number of faces the tape was recorded with.
+   */
+  private final int faces;
+  /**
+   * Bits used for each roll.
+   */
+  private final int bits;
+  /**
+   * The number of Dice in each set the tape was recorded with.
+   */
+  private final int diceCount;
+  /**
+   * How many rolls are on the tape.
+   */
+  private final long rolls;
+  /**
+   * The next roll to play.
+   */
+  private long next;
+
+  /**
+   * Open a tape for playback.
+   *
+   * @param file - the tape to play
+   * @throws IOException - if the file can't be read, isn't a tape, or its header doesn't add up
+   */
+  public TapeReplayDiceFactory(final Path file) throws IOException {
+    channel = FileChannel.open(file, StandardOpenOption.READ);
+    long size = channel.size();
+    if (size < RollTape.HEADER_SIZE || size > Integer.MAX_VALUE) {
+      channel.close();
+      throw new IOException(file + " is not a roll tape: it is " + size + " bytes long.");
+    }
+    tape = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+    faces = tape.getInt(RollTape.FACES_OFFSET);
+    bits = tape.getInt(RollTape.BITS_OFFSET);
+    diceCount = tape.getInt(RollTape.COUNT_OF_DICE_OFFSET);
+    rolls = tape.getLong(RollTape.COUNT_OFFSET);
+    String problem = null;
+    if (tape.getInt(0) != RollTape.MAGIC) {
+      problem = "it doesn't start with the tape marker";
+    } else if (faces < 1 || bits != RollTape.bitsPerRoll(faces)) {
+      problem = "its header has " + bits + " bits per roll for " + faces + " faces";
+    } else if (diceCount < 1) {
+      problem = "its header has " + diceCount + " Dice in a set";
+    } else if (rolls < 0 || rolls > RollTape.maxRolls(bits) || RollTape.fileSize(rolls, bits) > size) {
+      problem = "its header has " + rolls + " rolls, which don't fit in the file";
+    }
+    if (problem != null) {
+      channel.close();
+      throw new IOException(file + " is not a roll tape: " + problem + ".");
+    }
+  }
+
+  @Override
+  public List<Dice> makeDice(final Integer howManyFaces, final Integer count) {
+    if (howManyFaces != faces) {
+      throw new IllegalArgumentException("This tape was recorded with Dice of " + faces + " faces.");
+    }
+    if (count != diceCount) {
+      throw new IllegalArgumentException("This tape was recorded with sets of " + diceCount + " Dice.");
+    }
+    List<Dice> dices = new ArrayList<>();
+    for (int d = 0; d < count; d++) {
+      dices.add(new ReplayDice());
+    }
+    return dices;
+  }
+
+  /**
+   * @return how many rolls are on the tape.
+   */
+  public long getRollCount() {
+    return rolls;
+  }
+
+  /**
+   * @return how many rolls are left to play.
+   */
+  public synchronized long remaining() {
+    return rolls - next;
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  private synchronized int nextRoll() {
+    if (next == rolls) {
+      throw new IllegalStateException("The tape has run out after " + rolls + " rolls.");
+    }
+    return RollTape.read(tape, next++, bits);
+  }
+
+  /**
+   * A Dice that plays the next roll on the tape.
+   */
+  private final class ReplayDice implements Dice {
+
+    @Override
+    public Integer roll() {
+      return rollInt();
+    }
+
+    @Override
+    public int rollInt() {
+      return nextRoll();
+    }
+  }
+}
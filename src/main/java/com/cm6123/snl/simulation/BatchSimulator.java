@@ -0,0 +1,160 @@
+package com.cm6123.snl.simulation;
+
+import com.cm6123.snl.GameBuilder;
+import com.cm6123.snl.dice.DiceSet;
+
+/**
+ * Plays many games on one layout in lockstep, without Game, PlayerList or Position objects.
+ * The live games sit in parallel int arrays (every player's square, whose turn it is and how
+ * many turns have gone) and each pass moves every one of them once using the board's turn table.
+ * A finished game's slot is taken by a game still to start, or once there are none left by the
+ * last live game, so the live games always fill the front of the arrays.
+ */
+public final class BatchSimulator {
+
+  /**
+   * Games played side by side unless set otherwise.
+   */
+  private static final int DEFAULT_LANES = 4096;
+
+  /**
+   * The flattened set-up.
+   */
+  private final FlatLayout layout;
+  /**
+   * Players in each game.
+   */
+  private final int players;
+  /**
+   * Games played side by side.
+   */
+  private final int lanes;
+
+  /**
+   * @param builder - the set-up of the games (built once to read the layout and starting positions)
+   * @param maxRoll - the largest roll that will be played
+   */
+  public BatchSimulator(final GameBuilder builder, final int maxRoll) {
+    this(builder, maxRoll, DEFAULT_LANES);
+  }
+
+  /**
+   * @param builder - the set-up of the games (built once to read the layout and starting positions)
+   * @param maxRoll - the largest roll that will be played
+   * @param howManyLanes - how many games to play side by side
+   * @throws IllegalArgumentException - if the board's squares times maxRoll is more than
+   *     Board.TURN_TABLE_LIMIT, as the games are played from the turn table
+   */
+  public BatchSimulator(final GameBuilder builder, final int maxRoll, final int howManyLanes) {
+    if (howManyLanes < 1) {
+      throw new IllegalArgumentException("At least one game must be played at a time.");
+    }
+    layout = new FlatLayout(builder, maxRoll);
+    players = layout.players();
+    lanes = howManyLanes;
+  }
+
+  /**
+   * @return the number of players in each game.
+   */
+  public int numberOfPlayers() {
+    return players;
+  }
+
+  /**
+   * @param shared - true for a heatmap every worker counts into at once
+   * @return an empty heatmap for this layout.
+   */
+  public SquareHeatmap newHeatmap(final boolean shared) {
+    return new SquareHeatmap(layout.board(), layout.rolls(), shared);
+  }
+
+  /**
+   * Play a number of games to the end or the turn limit.
+   *
+   * @param games - how many games to play
+   * @param dice - the dice to roll
+   * @param maxTurns - the most turns a game gets before it counts as unfinished
+   * @return the totals over all the games.
+   */
+  public SimulationResult run(final int games, final DiceSet dice, final int maxTurns) {
+    return run(games, dice, maxTurns, null);
+  }
+
+  /**
+   * Play a number of games to the end or the turn limit, counting every move in a heatmap.
+   *
+   * @param games - how many games to play
+   * @param dice - the dice to roll
+   * @param maxTurns - the most turns a game gets before it counts as unfinished
+   * @param heatmap - the heatmap to count the moves in (from newHeatmap), or null
+   * @return the totals over all the games, with the heatmap.
+   */
+  public SimulationResult run(final int games, final DiceSet dice, final int maxTurns, final SquareHeatmap heatmap) {
+    int[] table = layout.table();
+    int rolls = layout.rolls();
+    int last = layout.last();
+    SimulationResult result = new SimulationResult(players);
+    result.setHeatmap(heatmap);
+    int width = Math.min(games, lanes);
+    int[] positions = new int[width * players];
+    int[] current = new int[width];
+    int[] turns = new int[width];
+
+    int live = 0;
+    while (live < width) {
+      reset(positions, current, turns, live++);
+    }
+    int started = width;
+
+    while (live > 0) {
+      int slot = 0;
+      while (slot < live) {
+        int roll = dice.rollInt();
+        layout.checkRoll(roll);
+        int player = current[slot];
+        int at = slot * players + player;
+        int index = positions[at] * rolls + roll - 1;
+        int to = table[index];
+        positions[at] = to;
+        if (heatmap != null) {
+          heatmap.count(index);
+        }
+        int played = ++turns[slot];
+
+        if (to < last && played < maxTurns) {
+          current[slot] = player + 1 == players ? 0 : player + 1;
+          slot++;
+          continue;
+        }
+        result.record(to >= last ? player : -1, played);
+        if (started < games) {
+          reset(positions, current, turns, slot);
+          started++;
+          slot++;
+        } else {
+          live--;
+          System.arraycopy(positions, live * players, positions, slot * players, players);
+          current[slot] = current[live];
+          turns[slot] = turns[live];
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Put a new game in a slot.
+   * @param positions - every player's square, slot by slot
+   * @param current - whose turn it is in each slot
+   * @param turns - the turns played in each slot
+   * @param slot - the slot to fill
+   */
+  private void reset(final int[] positions, final int[] current, final int[] turns, final int slot) {
+    for (int player = 0; player < players; player++) {
+      positions[slot * players + player] = layout.start(player);
+    }
+    current[slot] = layout.firstPlayer();
+    turns[slot] = 0;
+  }
+}
@@ -0,0 +1,133 @@
+package com.cm6123.snl.simulation;
+
+import com.cm6123.snl.Board;
+import com.cm6123.snl.Game;
+import com.cm6123.snl.GameBuilder;
+
+/**
+ * A game set-up flattened to primitives for the simulators: the turn table,
+ * the winning square and where each player starts.
+ */
+final class FlatLayout {
+
+  /**
+   * The board the layout came from.
+   */
+  private final Board board;
+  /**
+   * The square each turn ends on, at square * rolls + roll - 1.
+   */
+  private final int[] table;
+  /**
+   * The largest roll the table covers.
+   */
+  private final int rolls;
+  /**
+   * The winning square.
+   */
+  private final int last;
+  /**
+   * Where each player starts.
+   */
+  private final int[] start;
+  /**
+   * The player who moves first.
+   */
+  private final int firstPlayer;
+
+  /**
+   * @param builder - the set-up of the games (built once to read the layout and starting positions)
+   * @param maxRoll - the largest roll that will be played
+   * @throws IllegalArgumentException - if the board is too big for a turn table, see Board.TURN_TABLE_LIMIT
+   */
+  FlatLayout(final GameBuilder builder, final int maxRoll) {
+    Game template = builder.copy().withMaxRoll(maxRoll).build();
+    if (template.isGameOver()) {
+      throw new IllegalStateException("The game is already over.");
+    }
+    board = template.getBoard();
+    checkTurnTable(board, maxRoll);
+    table = board.turnTable(maxRoll);
+    rolls = maxRoll;
+    last = board.size() - 1;
+    start = new int[template.numberOfPlayers()];
+    for (int player = 0; player < start.length; player++) {
+      start[player] = template.positionOf(player);
+    }
+    firstPlayer = template.getCurrentPlayerIndex();
+  }
+
+  /**
+   * The simulators that play games side by side move the players with the turn table,
+   * so they can't play on a board too big for one.
+   * @param aBoard - the board
+   * @param maxRoll - the largest roll that will be played
+   * @throws IllegalArgumentException - if the board has no room for a turn table up to maxRoll
+   */
+  static void checkTurnTable(final Board aBoard, final int maxRoll) {
+    if (!aBoard.hasTurnTableFor(maxRoll)) {
+      throw new IllegalArgumentException("A board of " + aBoard.size() + " squares is too big to play side by side"
+              + " with rolls up to " + maxRoll + ": the squares times the rolls must be at most "
+              + Board.TURN_TABLE_LIMIT + ". Play the games one at a time instead.");
+    }
+  }
+
+  /**
+   * @return the board the layout came from.
+   */
+  Board board() {
+    return board;
+  }
+
+  /**
+   * @return the turn table (shared, not to be changed).
+   */
+  int[] table() {
+    return table;
+  }
+
+  /**
+   * @return the largest roll the table covers.
+   */
+  int rolls() {
+    return rolls;
+  }
+
+  /**
+   * @return the winning square.
+   */
+  int last() {
+    return last;
+  }
+
+  /**
+   * @return the number of players.
+   */
+  int players() {
+    return start.length;
+  }
+
+  /**
+   * @param player - the index of a player
+   * @return where the player starts.
+   */
+  int start(final int player) {
+    return start[player];
+  }
+
+  /**
+   * @return the player who moves first.
+   */
+  int firstPlayer() {
+    return firstPlayer;
+  }
+
+  /**
+   * @param roll - a roll about to be played
+   */
+  void checkRoll(final int roll) {
+    if (roll < 1 || roll > rolls) {
+      throw new IllegalArgumentException("A roll of " + roll + " is outside the turn table.");
+    }
+  }
+}
@@ -0,0 +1,26 @@
+package com.cm6123.snl.simulation;
+
+/**
+ * Moves one player in every lane of a block of games, for LaneSimulator.
+ * The plain loop is ScalarLaneKernel; VectorLaneKernel (built from src/vector/java
+ * when the JDK has the Vector API) does the same with SIMD gathers.
+ */
+interface LaneKernel {
+
+  /**
+   * For every lane below count whose game is still going (finishedAt is 0), move the
+   * square to table[square * rolls + roll - 1], and if that is at least the last square
+   * set finishedAt to turn.  The rolls may be overwritten.
+   *
+   * @param table - the turn table
+   * @param rolls - the largest roll the table covers
+   * @param last - the winning square
+   * @param squares - the square of the player who is moving, lane by lane
+   * @param roll - the roll for each lane
+   * @param finishedAt - the turn each game finished on, or 0
+   * @param turn - the number of this turn (from 1)
+   * @param count - how many lanes are in use
+   * @return how many games finished on this turn.
+   */
+  int step(int[] table, int rolls, int last, int[] squares, int[] roll, int[] finishedAt, int turn, int count);
+}
@@ -0,0 +1,147 @@
+package com.cm6123.snl.simulation;
+
+import com.cm6123.snl.GameBuilder;
+import com.cm6123.snl.dice.DiceSet;
+
+import java.util.Arrays;
+
+/**
+ * Plays blocks of games on one layout where every game in a block takes its turns together,
+ * so on each turn the same player moves in every lane and the move is one pass over an
+ * int array: a gather from the turn table.  That pass is done by a LaneKernel, which uses
+ * the JDK Vector API when it is there (run with --add-modules jdk.incubator.vector)
+ * and a plain loop when it isn't.
+ * A block carries on until its longest game ends, with the finished lanes masked off.
+ */
+public final class LaneSimulator {
+
+  /**
+   * Games in a block unless set otherwise.
+   */
+  private static final int DEFAULT_LANES = 4096;
+  /**
+   * The class of the Vector API kernel, only on the class path when it could be compiled.
+   */
+  private static final String VECTOR_KERNEL = "com.cm6123.snl.simulation.VectorLaneKernel";
+  /**
+   * Set this system property to "scalar" to turn the Vector API kernel off.
+   */
+  private static final String KERNEL_PROPERTY = "snl.kernel";
+
+  /**
+   * The flattened set-up.
+   */
+  private final FlatLayout layout;
+  /**
+   * Games in a block.
+   */
+  private final int lanes;
+  /**
+   * Moves a player in every lane.
+   */
+  private final LaneKernel kernel;
+
+  /**
+   * @param builder - the set-up of the games (built once to read the layout and starting positions)
+   * @param maxRoll - the largest roll that will be played
+   */
+  public LaneSimulator(final GameBuilder builder, final int maxRoll) {
+    this(builder, maxRoll, DEFAULT_LANES);
+  }
+
+  /**
+   * @param builder - the set-up of the games (built once to read the layout and starting positions)
+   * @param maxRoll - the largest roll that will be played
+   * @param howManyLanes - how many games in a block
+   */
+  public LaneSimulator(final GameBuilder builder, final int maxRoll, final int howManyLanes) {
+    this(builder, maxRoll, howManyLanes, bestKernel());
+  }
+
+  /**
+   * @param builder - the set-up of the games
+   * @param maxRoll - the largest roll that will be played
+   * @param howManyLanes - how many games in a block
+   * @param aKernel - the kernel to move the players with
+   * @throws IllegalArgumentException - if the board's squares times maxRoll is more than Board.TURN_TABLE_LIMIT
+   */
+  LaneSimulator(final GameBuilder builder, final int maxRoll, final int howManyLanes, final LaneKernel aKernel) {
+    if (howManyLanes < 1) {
+      throw new IllegalArgumentException("At least one game must be played at a time.");
+    }
+    layout = new FlatLayout(builder, maxRoll);
+    lanes = howManyLanes;
+    kernel = aKernel;
+  }
+
+  /**
+   * Load the Vector API kernel if it is on the class path and the JDK can run it.
+   * @return the fastest kernel available.
+   */
+  static LaneKernel bestKernel() {
+    if ("scalar".equals(System.getProperty(KERNEL_PROPERTY))) {
+      return new ScalarLaneKernel();
+    }
+    try {
+      return (LaneKernel) Class.forName(VECTOR_KERNEL).getDeclaredConstructor().newInstance();
+    } catch (ReflectiveOperationException | LinkageError e) {
+      return new ScalarLaneKernel();
+    }
+  }
+
+  /**
+   * @return the simple name of the kernel in use.
+   */
+  public String getKernelName() {
+    return kernel.getClass().getSimpleName();
+  }
+
+  /**
+   * Play a number of games to the end or the turn limit.
+   *
+   * @param games - how many games to play
+   * @param dice - the dice to roll
+   * @param maxTurns - the most turns a game gets before it counts as unfinished
+   * @return the totals over all the games.
+   */
+  public SimulationResult run(final int games, final DiceSet dice, final int maxTurns) {
+    int players = layout.players();
+    int first = layout.firstPlayer();
+    SimulationResult result = new SimulationResult(players);
+    int width = Math.min(games, lanes);
+    int[][] squares = new int[players][width];
+    int[] roll = new int[width];
+    int[] finishedAt = new int[width];
+
+    for (int begun = 0; begun < games; begun += width) {
+      int count = Math.min(width, games - begun);
+      for (int player = 0; player < players; player++) {
+        Arrays.fill(squares[player], 0, count, layout.start(player));
+      }
+      Arrays.fill(finishedAt, 0, count, 0);
+
+      int live = count;
+      int player = first;
+      for (int turn = 1; live > 0 && turn <= maxTurns; turn++) {
+        for (int lane = 0; lane < count; lane++) {
+          int value = dice.rollInt();
+          layout.checkRoll(value);
+          roll[lane] = value;
+        }
+        live -= kernel.step(layout.table(), layout.rolls(), layout.last(),
+                squares[player], roll, finishedAt, turn, count);
+        player = player + 1 == players ? 0 : player + 1;
+      }
+
+      for (int lane = 0; lane < count; lane++) {
+        int turn = finishedAt[lane];
+        if (turn == 0) {
+          result.record(-1, maxTurns);
+        } else {
+          result.record((first + turn - 1) % players, turn);
+        }
+      }
+    }
+    return result;
+  }
+}
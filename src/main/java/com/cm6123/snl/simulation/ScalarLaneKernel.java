@@ -0,0 +1,30 @@
+package com.cm6123.snl.simulation;
+
+/**
+ * The plain loop version of LaneKernel, used where the Vector API isn't available.
+ */
+final class ScalarLaneKernel implements LaneKernel {
+
+  @Override
+  public int step(final int[] table,
+                  final int rolls,
+                  final int last,
+                  final int[] squares,
+                  final int[] roll,
+                  final int[] finishedAt,
+                  final int turn,
+                  final int count) {
+    int finished = 0;
+    for (int lane = 0; lane < count; lane++) {
+      if (finishedAt[lane] == 0) {
+        int to = table[squares[lane] * rolls + roll[lane] - 1];
+        squares[lane] = to;
+        if (to >= last) {
+          finishedAt[lane] = turn;
+          finished++;
+        }
+      }
+    }
+    return finished;
+  }
+}
@@ -0,0 +1,299 @@
+package com.cm6123.snl.simulation;
+
+import com.cm6123.snl.Game;
+import com.cm6123.snl.GameBuilder;
+import com.cm6123.snl.GameResult;
+import com.cm6123.snl.dice.DiceSet;
+import com.cm6123.snl.dice.RandomDiceFactory;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Plays many games with the same set-up on a ForkJoinPool and totals the results.
+ * The games are split into batches; each batch reuses one Game (reset from a snapshot)
+ * and rolls its own stream of random numbers, so workers share nothing while playing
+ * and a seed gives the same result whatever the number of threads.
+ */
+public final class SimulationEngine {
+
+  /**
+   * Games in a batch unless set otherwise.
+   */
+  private static final int DEFAULT_BATCH_SIZE = 4096;
+  /**
+   * The most turns a game gets unless set otherwise.
+   */
+  private static final int DEFAULT_MAX_TURNS = 100_000;
+
+  /**
+   * The engine's own copy of the set-up, only used on the thread calling run.
+   */
+  private final GameBuilder builder;
+  /**
+   * The game every batch copies its game from; never played, so workers only read it.
+   */
+  private final Game template;
+  /**
+   * How many faces on each Dice.
+   */
+  private final int faces;
+  /**
+   * How many Dice are rolled each turn.
+   */
+  private final int diceCount;
+  /**
+   * The pool the batches run on.
+   */
+  private ForkJoinPool pool = ForkJoinPool.commonPool();
+  /**
+   * Games in a batch.
+   */
+  private int batchSize = DEFAULT_BATCH_SIZE;
+  /**
+   * The most turns a game gets before it counts as unfinished.
+   */
+  private int maxTurns = DEFAULT_MAX_TURNS;
+  /**
+   * True to play each batch in lockstep with a BatchSimulator.
+   */
+  private boolean lockstep;
+  /**
+   * True to count every move in a heatmap.
+   */
+  private boolean heatmap;
+  /**
+   * True for one heatmap every worker counts into, rather than one per batch.
+   */
+  private boolean sharedHeatmap;
+
+  /**
+   * Set up an engine.  The builder is copied, with the largest roll set to what the Dice
+   * can roll so every game uses the precomputed turn table, and built once here; later
+   * changes to the builder don't affect the engine.
+   *
+   * @param aBuilder - the set-up of the games to play
+   * @param howManyFaces - how many faces on each Dice
+   * @param howManyDice - how many Dice are rolled each turn
+   */
+  public SimulationEngine(final GameBuilder aBuilder, final int howManyFaces, final int howManyDice) {
+    if (howManyFaces < 1 || howManyDice < 1) {
+      throw new IllegalArgumentException("A roll needs at least one Dice with at least one face.");
+    }
+    builder = aBuilder.copy().withMaxRoll(howManyFaces * howManyDice);
+    template = builder.build();
+    faces = howManyFaces;
+    diceCount = howManyDice;
+  }
+
+  /**
+   * @param aPool - the pool to run the batches on
+   * @return this engine.
+   */
+  public SimulationEngine withPool(final ForkJoinPool aPool) {
+    pool = aPool;
+    return this;
+  }
+
+  /**
+   * @param games - how many games each batch plays
+   * @return this engine.
+   */
+  public SimulationEngine withBatchSize(final int games) {
+    if (games < 1) {
+      throw new IllegalArgumentException("A batch must have at least one game.");
+    }
+    batchSize = games;
+    return this;
+  }
+
+  /**
+   * @param turns - the most turns a game gets before it counts as unfinished
+   * @return this engine.
+   */
+  public SimulationEngine withMaxTurns(final int turns) {
+    if (turns < 1) {
+      throw new IllegalArgumentException("A game must get at least one turn.");
+    }
+    maxTurns = turns;
+    return this;
+  }
+
+  /**
+   * Play each batch's games side by side with a BatchSimulator instead of one Game at a time.
+   * The totals differ from the default because the rolls are shared out in a different order.
+   * The lockstep games are played from the board's turn table, so the board's squares times
+   * the largest roll can be at most Board.TURN_TABLE_LIMIT (about 350,000 squares with two dice).
+   * @return this engine.
+   * @throws IllegalArgumentException - if the board is too big for a turn table
+   */
+  public SimulationEngine withLockstep() {
+    FlatLayout.checkTurnTable(template.getBoard(), faces * diceCount);
+    lockstep = true;
+    return this;
+  }
+
+  /**
+   * Count where the players go.  The moves are counted by the lockstep simulator,
+   * so this turns lockstep on.  Each batch counts into its own array and the arrays
+   * are merged at the end, unless shared is true, in which case all workers count
+   * into one heatmap of LongAdders.  The heatmap counts per square and roll, so it has the
+   * same limit as lockstep.
+   * @param shared - true for one heatmap shared by all workers
+   * @return this engine.
+   * @throws IllegalArgumentException - if the board is too big for a turn table
+   */
+  public SimulationEngine withHeatmap(final boolean shared) {
+    withLockstep();
+    heatmap = true;
+    sharedHeatmap = shared;
+    return this;
+  }
+
+  /**
+   * Play a number of games.
+   *
+   * @param games - how many games to play
+   * @param seed - the seed the random numbers come from
+   * @return the totals over all the games.
+   */
+  public SimulationResult run(final long games, final long seed) {
+    long batches = batchesFor(games);
+    RandomDiceFactory streams = new RandomDiceFactory(seed);
+    BatchSimulator kernel = lockstep ? new BatchSimulator(builder, faces * diceCount, batchSize) : null;
+    SquareHeatmap shared = heatmap && sharedHeatmap ? kernel.newHeatmap(true) : null;
+    return pool.invoke(new Batches(streams, kernel, shared, games, 0, batches));
+  }
+
+  /**
+   * Play rounds of batches until the rule's confidence intervals are narrow enough or
+   * its game limit is reached.  The totals are only checked between rounds, on the calling
+   * thread, and the batches keep numbering their random streams across rounds, so a seed
+   * gives the same result whatever the number of threads.
+   *
+   * @param rule - when to stop
+   * @param seed - the seed the random numbers come from
+   * @return the totals over all the games played, from which the intervals reached can be read.
+   */
+  public SimulationResult run(final StoppingRule rule, final long seed) {
+    long maxGames = rule.getMaxGames();
+    long batches = batchesFor(maxGames);
+    RandomDiceFactory streams = new RandomDiceFactory(seed);
+    BatchSimulator kernel = lockstep ? new BatchSimulator(builder, faces * diceCount, batchSize) : null;
+    SquareHeatmap shared = heatmap && sharedHeatmap ? kernel.newHeatmap(true) : null;
+
+    SimulationResult total = null;
+    long next = 0;
+    do {
+      long end = Math.min(batches, next + rule.getBatchesPerRound());
+      SimulationResult round = pool.invoke(new Batches(streams, kernel, shared, maxGames, next, end));
+      total = total == null ? round : total.merge(round);
+      next = end;
+    } while (next < batches && !rule.isMet(total));
+    return total;
+  }
+
+  /**
+   * @param games - a number of games
+   * @return the batches needed to play them.
+   */
+  private long batchesFor(final long games) {
+    return games / batchSize + (games % batchSize == 0 ? 0 : 1);
+  }
+
+  /**
+   * Play one batch on the calling thread.
+   *
+   * @param streams - the factory the batch's random stream is taken from
+   * @param kernel - plays the games in lockstep, or null to play them one at a time
+   * @param shared - the heatmap shared by all workers, or null
+   * @param batch - the number of the batch
+   * @param games - how many games to play
+   * @return the batch's totals.
+   */
+  private SimulationResult runBatch(final RandomDiceFactory streams,
+                                    final BatchSimulator kernel,
+                                    final SquareHeatmap shared,
+                                    final long batch,
+                                    final int games) {
+    DiceSet dice = new DiceSet(faces, diceCount, streams.forStream(batch));
+    if (kernel != null) {
+      SquareHeatmap counts = shared;
+      if (heatmap && counts == null) {
+        counts = kernel.newHeatmap(false);
+      }
+      return kernel.run(games, dice, maxTurns, counts);
+    }
+    Game game = template.copy();
+    long[] start = game.snapshotStateWide();
+    SimulationResult result = new SimulationResult(game.numberOfPlayers());
+    for (int g = 0; g < games; g++) {
+      game.restoreState(start);
+      GameResult played = game.playUntilEnd(dice, maxTurns);
+      result.record(played);
+    }
+    return result;
+  }
+
+  /**
+   * A range of batches, split in half until there is one left to play.
+   */
+  private final class Batches extends RecursiveTask<SimulationResult> {
+    /**
+     * Tasks are serializable through ForkJoinTask, though these are never serialized.
+     */
+    private static final long serialVersionUID = 1L;
+    /**
+     * Where the batches' random streams come from.
+     */
+    private final RandomDiceFactory streams;
+    /**
+     * Plays the games in lockstep, or null.
+     */
+    private final BatchSimulator kernel;
+    /**
+     * The heatmap shared by all workers, or null.
+     */
+    private final SquareHeatmap shared;
+    /**
+     * Games in the whole run.
+     */
+    private final long games;
+    /**
+     * First batch in the range.
+     */
+    private final long from;
+    /**
+     * One past the last batch in the range.
+     */
+    private final long to;
+
+    Batches(final RandomDiceFactory someStreams,
+            final BatchSimulator aKernel,
+            final SquareHeatmap aShared,
+            final long totalGames,
+            final long first,
+            final long end) {
+      streams = someStreams;
+      kernel = aKernel;
+      shared = aShared;
+      games = totalGames;
+      from = first;
+      to = end;
+    }
+
+    @Override
+    protected SimulationResult compute() {
+      if (to - from <= 1) {
+        long firstGame = from * batchSize;
+        int count = (int) Math.max(0, Math.min(batchSize, games - firstGame));
+        return runBatch(streams, kernel, shared, from, count);
+      }
+      long middle = (from + to) >>> 1;
+      Batches left = new Batches(streams, kernel, shared, games, from, middle);
+      left.fork();
+      SimulationResult right = new Batches(streams, kernel, shared, games, middle, to).compute();
+      return left.join().merge(right);
+    }
+  }
+}
@@ -0,0 +1,276 @@
+package com.cm6123.snl.simulation;
+
+import com.cm6123.snl.GameResult;
+
+/**
+ * Totals from a simulation run: who won how often and how long the games took.
+ * Each worker fills its own and they are merged at the end.
+ */
+public final class SimulationResult {
+
+  /**
+   * Games played.
+   */
+  private long games;
+  /**
+   * Games that hit the turn limit without a winner.
+   */
+  private long unfinished;
+  /**
+   * Wins for each player.
+   */
+  private final long[] wins;
+  /**
+   * Mean number of turns of the finished games.
+   */
+  private double meanTurns;
+  /**
+   * Sum of squared differences from the mean (Welford), for the variance.
+   */
+  private double squaredDeviations;
+  /**
+   * Fewest turns in a finished game.
+   */
+  private long minTurns = Long.MAX_VALUE;
+  /**
+   * Most turns in a finished game.
+   */
+  private long maxTurns;
+  /**
+   * The turns taken by every finished game.
+   */
+  private final TurnHistogram turnHistogram = new TurnHistogram();
+  /**
+   * The turns taken by the games each player won.
+   */
+  private final TurnHistogram[] winningTurns;
+  /**
+   * Where the players went, if that was counted.
+   */
+  private SquareHeatmap heatmap;
+
+  /**
+   * @param players - the number of players in each game
+   */
+  SimulationResult(final int players) {
+    wins = new long[players];
+    winningTurns = new TurnHistogram[players];
+    for (int player = 0; player < players; player++) {
+      winningTurns[player] = new TurnHistogram();
+    }
+  }
+
+  /**
+   * @param aHeatmap - the heatmap the games' moves are counted in, or null
+   */
+  void setHeatmap(final SquareHeatmap aHeatmap) {
+    heatmap = aHeatmap;
+  }
+
+  /**
+   * Add one game.
+   * @param result - the result of the game
+   */
+  void record(final GameResult result) {
+    record(result.getWinner(), result.getTurns());
+  }
+
+  /**
+   * Add one game.
+   * @param winner - the index of the winning player, or -1 if nobody won
+   * @param turns - how many turns were played
+   */
+  void record(final int winner, final long turns) {
+    games++;
+    if (winner < 0) {
+      unfinished++;
+      return;
+    }
+    wins[winner]++;
+    long finished = games - unfinished;
+    double delta = turns - meanTurns;
+    meanTurns += delta / finished;
+    squaredDeviations += delta * (turns - meanTurns);
+    minTurns = Math.min(minTurns, turns);
+    maxTurns = Math.max(maxTurns, turns);
+    turnHistogram.record(turns);
+    winningTurns[winner].record(turns);
+  }
+
+  /**
+   * Add in the totals from another worker.
+   * @param other - the other worker's totals
+   * @return this result.
+   */
+  SimulationResult merge(final SimulationResult other) {
+    long finished = getFinishedGames();
+    long otherFinished = other.getFinishedGames();
+    long together = finished + otherFinished;
+    if (otherFinished > 0) {
+      double delta = other.meanTurns - meanTurns;
+      meanTurns += delta * otherFinished / together;
+      squaredDeviations += other.squaredDeviations + delta * delta * finished * otherFinished / together;
+    }
+    games += other.games;
+    unfinished += other.unfinished;
+    for (int player = 0; player < wins.length; player++) {
+      wins[player] += other.wins[player];
+      winningTurns[player].add(other.winningTurns[player]);
+    }
+    turnHistogram.add(other.turnHistogram);
+    if (heatmap == null) {
+      heatmap = other.heatmap;
+    } else if (other.heatmap != null) {
+      heatmap.add(other.heatmap);
+    }
+    minTurns = Math.min(minTurns, other.minTurns);
+    maxTurns = Math.max(maxTurns, other.maxTurns);
+    return this;
+  }
+
+  /**
+   * @return the number of games played.
+   */
+  public long getGames() {
+    return games;
+  }
+
+  /**
+   * @return the number of games someone won.
+   */
+  public long getFinishedGames() {
+    return games - unfinished;
+  }
+
+  /**
+   * @return the number of games that reached the turn limit without a winner.
+   */
+  public long getUnfinishedGames() {
+    return unfinished;
+  }
+
+  /**
+   * @return the number of players in each game.
+   */
+  public int numberOfPlayers() {
+    return wins.length;
+  }
+
+  /**
+   * @param player - the index of a player
+   * @return how many games the player won.
+   */
+  public long getWins(final int player) {
+    return wins[player];
+  }
+
+  /**
+   * @param player - the index of a player
+   * @return the fraction of all games the player won.
+   */
+  public double getWinProbability(final int player) {
+    return games == 0 ? 0 : (double) wins[player] / games;
+  }
+
+  /**
+   * @return the mean number of turns (moves by any player) in a finished game.
+   */
+  public double getMeanTurns() {
+    return meanTurns;
+  }
+
+  /**
+   * @return the sample variance of the number of turns in a finished game.
+   */
+  public double getTurnVariance() {
+    long finished = getFinishedGames();
+    return finished < 2 ? 0 : squaredDeviations / (finished - 1);
+  }
+
+  /**
+   * @param confidence - the confidence level, between 0 and 1
+   * @return the half-width of the normal confidence interval for the mean number of turns.
+   */
+  public double getMeanTurnsHalfWidth(final double confidence) {
+    long finished = getFinishedGames();
+    if (finished < 2) {
+      return Double.POSITIVE_INFINITY;
+    }
+    return StoppingRule.criticalValue(confidence) * Math.sqrt(getTurnVariance() / finished);
+  }
+
+  /**
+   * @param player - the index of a player
+   * @param confidence - the confidence level, between 0 and 1
+   * @return the half-width of the Wilson score interval for the player's win probability,
+   *     which unlike the normal (Wald) interval isn't 0 when a player wins none or all of the games.
+   */
+  public double getWinProbabilityHalfWidth(final int player, final double confidence) {
+    if (games == 0) {
+      return Double.POSITIVE_INFINITY;
+    }
+    double p = getWinProbability(player);
+    double z = StoppingRule.criticalValue(confidence);
+    double z2n = z * z / games;
+    return z / (1 + z2n) * Math.sqrt(p * (1 - p) / games + z2n / (4 * games));
+  }
+
+  /**
+   * @return the fewest turns in a finished game (0 if none finished).
+   */
+  public long getMinTurns() {
+    return getFinishedGames() == 0 ? 0 : minTurns;
+  }
+
+  /**
+   * @return the most turns in a finished game.
+   */
+  public long getMaxTurns() {
+    return maxTurns;
+  }
+
+  /**
+   * @return the histogram of the turns taken by the finished games.
+   */
+  public TurnHistogram getTurnHistogram() {
+    return turnHistogram;
+  }
+
+  /**
+   * @param player - the index of a player
+   * @return the histogram of the turns taken by the games the player won.
+   */
+  public TurnHistogram getWinningTurnHistogram(final int player) {
+    return winningTurns[player];
+  }
+
+  /**
+   * @return how often each square was landed on and each special square used, or null if not counted.
+   */
+  public SquareHeatmap getHeatmap() {
+    return heatmap;
+  }
+
+  /**
+   * @param percentile - from 0 to 100
+   * @return the number of turns that this percentage of finished games took at most.
+   */
+  public long getTurnPercentile(final double percentile) {
+    return turnHistogram.getValueAtPercentile(percentile);
+  }
+
+  @Override
+  public String toString() {
+    return "SimulationResult{"
+            + "games=" + games
+            + ", unfinished=" + unfinished
+            + ", meanTurns=" + meanTurns
+            + ", minTurns=" + getMinTurns()
+            + ", maxTurns=" + maxTurns
+            + ", p50=" + turnHistogram.getP50()
+            + ", p90=" + turnHistogram.getP90()
+            + ", p99=" + turnHistogram.getP99()
+            + ", p99.9=" + turnHistogram.getP999()
+            + '}';
+  }
+}
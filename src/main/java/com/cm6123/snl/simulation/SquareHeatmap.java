@@ -0,0 +1,161 @@
+package com.cm6123.snl.simulation;
+
+import com.cm6123.snl.Board;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts how often each square is landed on and how often each snake, ladder and boost is used.
+ * While games are played it only counts how often each (square, roll) move is made, which is
+ * one increment at the turn table index the move already looked up; the landings and uses are
+ * worked out from those counts when asked for.
+ * A striped heatmap is a plain array filled by one worker and merged at the end;
+ * a shared one uses a LongAdder per move so every worker can count into it at once.
+ */
+public final class SquareHeatmap {
+
+  /**
+   * The board the moves are made on.
+   */
+  private final Board board;
+  /**
+   * The largest roll counted.
+   */
+  private final int rolls;
+  /**
+   * Moves made from each square with each roll, at square * rolls + roll - 1.  Null when shared.
+   */
+  private final long[] moves;
+  /**
+   * The same counts for a shared heatmap.  Null when striped.
+   */
+  private final LongAdder[] sharedMoves;
+
+  /**
+   * @param aBoard - the board the moves are made on
+   * @param maxRoll - the largest roll counted
+   * @param shared - true for a heatmap every worker counts into
+   * @throws IllegalArgumentException - if the board is too big for a turn table, which the landings are read from
+   */
+  SquareHeatmap(final Board aBoard, final int maxRoll, final boolean shared) {
+    FlatLayout.checkTurnTable(aBoard, maxRoll);
+    board = aBoard;
+    rolls = maxRoll;
+    int cells = aBoard.size() * maxRoll;
+    if (shared) {
+      moves = null;
+      sharedMoves = new LongAdder[cells];
+      for (int cell = 0; cell < cells; cell++) {
+        sharedMoves[cell] = new LongAdder();
+      }
+    } else {
+      moves = new long[cells];
+      sharedMoves = null;
+    }
+  }
+
+  /**
+   * Count a move.
+   * @param index - the turn table index of the move (square * rolls + roll - 1)
+   */
+  void count(final int index) {
+    if (moves != null) {
+      moves[index]++;
+    } else {
+      sharedMoves[index].increment();
+    }
+  }
+
+  /**
+   * Add in the counts from another heatmap of the same board.
+   * Adding a heatmap to itself does nothing, so workers sharing one can be merged as usual.
+   * @param other - the heatmap to add in
+   */
+  public void add(final SquareHeatmap other) {
+    if (other == this) {
+      return;
+    }
+    if (other.board != board || other.rolls != rolls) {
+      throw new IllegalArgumentException("The heatmaps are for different boards.");
+    }
+    for (int index = 0; index < board.size() * rolls; index++) {
+      long extra = other.movesAt(index);
+      if (moves != null) {
+        moves[index] += extra;
+      } else {
+        sharedMoves[index].add(extra);
+      }
+    }
+  }
+
+  /**
+   * @return true if every worker counts into this heatmap.
+   */
+  public boolean isShared() {
+    return moves == null;
+  }
+
+  /**
+   * @param index - a turn table index
+   * @return the moves counted there.
+   */
+  private long movesAt(final int index) {
+    return moves != null ? moves[index] : sharedMoves[index].sum();
+  }
+
+  /**
+   * @param square - the square moved from
+   * @param roll - the roll
+   * @return how many times that move was made.
+   */
+  public long getMoves(final int square, final int roll) {
+    return movesAt(square * rolls + roll - 1);
+  }
+
+  /**
+   * Work out, from the moves counted so far, how often each square was where a turn ended.
+   * @return the landings for each square.
+   */
+  public long[] getLandings() {
+    long[] landings = new long[board.size()];
+    int[] table = board.turnTable(rolls);
+    for (int index = 0; index < table.length; index++) {
+      landings[table[index]] += movesAt(index);
+    }
+    return landings;
+  }
+
+  /**
+   * Work out, from the moves counted so far, how often each special square was used:
+   * a snake head or ladder foot when a turn stopped on it, a boost when a turn passed through it.
+   * Every other square counts 0.
+   * @return the uses of each square.
+   */
+  public long[] getTriggers() {
+    int size = board.size();
+    int last = size - 1;
+    boolean[] boost = new boolean[size];
+    for (int square : board.boostSquares()) {
+      boost[square] = true;
+    }
+    long[] triggers = new long[size];
+    for (int from = 0; from < size; from++) {
+      for (int roll = 1; roll <= rolls; roll++) {
+        long made = movesAt(from * rolls + roll - 1);
+        if (made == 0) {
+          continue;
+        }
+        int jump = roll;
+        while (from + jump < last && boost[from + jump]) {
+          triggers[from + jump] += made;
+          jump += roll;
+        }
+        int target = from + jump;
+        if (target < last && board.destinationOf(target) != target) {
+          triggers[target] += made;
+        }
+      }
+    }
+    return triggers;
+  }
+}
@@ -0,0 +1,193 @@
+package com.cm6123.snl.simulation;
+
+/**
+ * When a simulation has played enough games: once the confidence intervals for the mean
+ * game length and for every player's chance of winning are narrow enough, or the game
+ * limit is reached.  The interval for the mean game length is a normal approximation, and
+ * the win chances use the Wilson score interval, which isn't 0 wide when a player wins none or all of the games.
+ */
+public final class StoppingRule {
+
+  /**
+   * The confidence level unless set otherwise.
+   */
+  private static final double DEFAULT_CONFIDENCE = 0.95;
+  /**
+   * Games always played before the intervals are trusted, unless set otherwise.
+   */
+  private static final long DEFAULT_MIN_GAMES = 10_000;
+  /**
+   * Batches played between checks unless set otherwise.
+   */
+  private static final int DEFAULT_BATCHES_PER_ROUND = 64;
+
+  /**
+   * The confidence level of the intervals.
+   */
+  private double confidence = DEFAULT_CONFIDENCE;
+  /**
+   * The widest half-width allowed for the mean number of turns, or 0 if it doesn't matter.
+   */
+  private double meanTurnsHalfWidth;
+  /**
+   * The widest half-width allowed for each win probability, or 0 if it doesn't matter.
+   */
+  private double winProbabilityHalfWidth;
+  /**
+   * Games always played first.
+   */
+  private long minGames = DEFAULT_MIN_GAMES;
+  /**
+   * The most games played.
+   */
+  private long maxGames = Long.MAX_VALUE;
+  /**
+   * Batches played between checks.
+   */
+  private int batchesPerRound = DEFAULT_BATCHES_PER_ROUND;
+
+  /**
+   * @param level - the confidence level, between 0 and 1
+   * @return this rule.
+   */
+  public StoppingRule withConfidence(final double level) {
+    if (!(level > 0 && level < 1)) {
+      throw new IllegalArgumentException("The confidence level must be between 0 and 1.");
+    }
+    confidence = level;
+    return this;
+  }
+
+  /**
+   * @param halfWidth - the widest half-width allowed for the mean number of turns
+   * @return this rule.
+   */
+  public StoppingRule withMeanTurnsHalfWidth(final double halfWidth) {
+    meanTurnsHalfWidth = checkWidth(halfWidth);
+    return this;
+  }
+
+  /**
+   * @param halfWidth - the widest half-width allowed for each player's win probability
+   * @return this rule.
+   */
+  public StoppingRule withWinProbabilityHalfWidth(final double halfWidth) {
+    winProbabilityHalfWidth = checkWidth(halfWidth);
+    return this;
+  }
+
+  /**
+   * @param games - the games always played before stopping
+   * @return this rule.
+   */
+  public StoppingRule withMinGames(final long games) {
+    minGames = games;
+    return this;
+  }
+
+  /**
+   * @param games - the most games to play, even if the intervals are still too wide
+   * @return this rule.
+   */
+  public StoppingRule withMaxGames(final long games) {
+    if (games < 1) {
+      throw new IllegalArgumentException("At least one game must be played.");
+    }
+    maxGames = games;
+    return this;
+  }
+
+  /**
+   * @param batches - the batches played between checks
+   * @return this rule.
+   */
+  public StoppingRule withBatchesPerRound(final int batches) {
+    if (batches < 1) {
+      throw new IllegalArgumentException("A round must have at least one batch.");
+    }
+    batchesPerRound = batches;
+    return this;
+  }
+
+  /**
+   * @param halfWidth - a half-width to check
+   * @return the half-width.
+   */
+  private static double checkWidth(final double halfWidth) {
+    if (!(halfWidth > 0)) {
+      throw new IllegalArgumentException("A half-width must be more than 0.");
+    }
+    return halfWidth;
+  }
+
+  /**
+   * @return the confidence level of the intervals.
+   */
+  public double getConfidence() {
+    return confidence;
+  }
+
+  /**
+   * @return the most games played.
+   */
+  public long getMaxGames() {
+    return maxGames;
+  }
+
+  /**
+   * @return the batches played between checks.
+   */
+  public int getBatchesPerRound() {
+    return batchesPerRound;
+  }
+
+  /**
+   * @param result - the totals so far
+   * @return true if the intervals asked for are all narrow enough.
+   */
+  public boolean isMet(final SimulationResult result) {
+    if (result.getGames() < minGames) {
+      return false;
+    }
+    if (meanTurnsHalfWidth > 0
+            && !(result.getMeanTurnsHalfWidth(confidence) <= meanTurnsHalfWidth)) {
+      return false;
+    }
+    if (winProbabilityHalfWidth > 0) {
+      for (int player = 0; player < result.numberOfPlayers(); player++) {
+        if (!(result.getWinProbabilityHalfWidth(player, confidence) <= winProbabilityHalfWidth)) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * The number of standard deviations either side of the mean that covers the
+   * given share of a normal distribution (Acklam's approximation of the inverse
+   * normal, accurate to about 1e-9).
+   * @param level - the confidence level, between 0 and 1
+   * @return the two-sided critical value.
+   */
+  static double criticalValue(final double level) {
+    double p = 1 - (1 - level) / 2;
+    double[] a = {-3.969683028665376e+01, 2.209460984245205e+02, -2.759285104469687e+02,
+        1.383577518672690e+02, -3.066479806614716e+01, 2.506628277459239e+00};
+    double[] b = {-5.447609879822406e+01, 1.615858368580409e+02, -1.556989798598866e+02,
+        6.680131188771972e+01, -1.328068155288572e+01};
+    double[] c = {-7.784894002430293e-03, -3.223964580411365e-01, -2.400758277161838e+00,
+        -2.549732539343734e+00, 4.374664141464968e+00, 2.938163982698783e+00};
+    double[] d = {7.784695709041462e-03, 3.224671290700398e-01, 2.445134137142996e+00,
+        3.754408661907416e+00};
+    if (p > 1 - 0.02425) {
+      double q = Math.sqrt(-2 * Math.log(1 - p));
+      return -(((((c[0] * q + c[1]) * q + c[2]) * q + c[3]) * q + c[4]) * q + c[5])
+              / ((((d[0] * q + d[1]) * q + d[2]) * q + d[3]) * q + 1);
+    }
+    double q = p - 0.5;
+    double r = q * q;
+    return (((((a[0] * r + a[1]) * r + a[2]) * r + a[3]) * r + a[4]) * r + a[5]) * q
+            / (((((b[0] * r + b[1]) * r + b[2]) * r + b[3]) * r + b[4]) * r + 1);
+  }
+}
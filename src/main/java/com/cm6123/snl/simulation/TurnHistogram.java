@@ -0,0 +1,205 @@
+package com.cm6123.snl.simulation;
+
+import java.util.Arrays;
+
+/**
+ * A histogram of turn counts that can be filled by one worker and merged with others.
+ * Values below 2048 get a bucket each, so their percentiles are exact; bigger values share
+ * buckets whose width is at most 1/1024 of the value, as in HdrHistogram.
+ * The buckets only grow as far as the biggest value recorded, so the memory does not
+ * depend on how many games are played.
+ */
+public final class TurnHistogram {
+
+  /**
+   * Bits kept from each value; values below 2 to this power are exact.
+   */
+  private static final int PRECISION_BITS = 11;
+  /**
+   * Values below this get a bucket each.
+   */
+  private static final int EXACT_LIMIT = 1 << PRECISION_BITS;
+  /**
+   * Buckets for each power of 2 above the exact range.
+   */
+  private static final int HALF = EXACT_LIMIT >>> 1;
+  /**
+   * Buckets allocated at first.
+   */
+  private static final int INITIAL_BUCKETS = 256;
+
+  /**
+   * The number of values in each bucket.
+   */
+  private long[] counts = new long[INITIAL_BUCKETS];
+  /**
+   * The number of values recorded.
+   */
+  private long count;
+  /**
+   * The sum of the values recorded.
+   */
+  private double sum;
+  /**
+   * The smallest value recorded.
+   */
+  private long min = Long.MAX_VALUE;
+  /**
+   * The largest value recorded.
+   */
+  private long max;
+
+  /**
+   * @param value - a value that is not negative
+   * @return the bucket for the value.
+   */
+  static int bucketOf(final long value) {
+    if (value < EXACT_LIMIT) {
+      return (int) value;
+    }
+    int shift = 64 - Long.numberOfLeadingZeros(value) - PRECISION_BITS;
+    long mantissa = value >>> shift;
+    return EXACT_LIMIT + (shift - 1) * HALF + (int) (mantissa - HALF);
+  }
+
+  /**
+   * @param bucket - the number of a bucket
+   * @return the largest value that goes in the bucket.
+   */
+  static long highestIn(final int bucket) {
+    if (bucket < EXACT_LIMIT) {
+      return bucket;
+    }
+    int shift = (bucket - EXACT_LIMIT) / HALF + 1;
+    long mantissa = HALF + (bucket - EXACT_LIMIT) % HALF;
+    return ((mantissa + 1) << shift) - 1;
+  }
+
+  /**
+   * Add one value.
+   * @param value - the value, which must not be negative
+   */
+  public void record(final long value) {
+    if (value < 0) {
+      throw new IllegalArgumentException("Only values of 0 or more can be recorded.");
+    }
+    int bucket = bucketOf(value);
+    if (bucket >= counts.length) {
+      counts = Arrays.copyOf(counts, Math.max(bucket + 1, counts.length * 2));
+    }
+    counts[bucket]++;
+    count++;
+    sum += value;
+    min = Math.min(min, value);
+    max = Math.max(max, value);
+  }
+
+  /**
+   * Add in every value from another histogram.
+   * @param other - the histogram to add in
+   */
+  public void add(final TurnHistogram other) {
+    if (other.counts.length > counts.length) {
+      counts = Arrays.copyOf(counts, other.counts.length);
+    }
+    for (int bucket = 0; bucket < other.counts.length; bucket++) {
+      counts[bucket] += other.counts[bucket];
+    }
+    count += other.count;
+    sum += other.sum;
+    min = Math.min(min, other.min);
+    max = Math.max(max, other.max);
+  }
+
+  /**
+   * @return the number of values recorded.
+   */
+  public long getCount() {
+    return count;
+  }
+
+  /**
+   * @return the smallest value recorded (0 if there are none).
+   */
+  public long getMin() {
+    return count == 0 ? 0 : min;
+  }
+
+  /**
+   * @return the largest value recorded.
+   */
+  public long getMax() {
+    return max;
+  }
+
+  /**
+   * @return the mean of the values recorded (0 if there are none).
+   */
+  public double getMean() {
+    return count == 0 ? 0 : sum / count;
+  }
+
+  /**
+   * Find the value that the given percentage of values are at or below.
+   * It is exact below 2048 and otherwise the top of its bucket, never more than the largest value.
+   * @param percentile - from 0 to 100
+   * @return the value at that percentile (0 if there are none).
+   */
+  public long getValueAtPercentile(final double percentile) {
+    if (percentile < 0 || percentile > 100) {
+      throw new IllegalArgumentException("A percentile must be from 0 to 100.");
+    }
+    if (count == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(percentile * count / 100));
+    long seen = 0;
+    for (int bucket = 0; bucket < counts.length; bucket++) {
+      seen += counts[bucket];
+      if (seen >= rank) {
+        return Math.min(highestIn(bucket), max);
+      }
+    }
+    return max;
+  }
+
+  /**
+   * @return the median.
+   */
+  public long getP50() {
+    return getValueAtPercentile(50);
+  }
+
+  /**
+   * @return the 90th percentile.
+   */
+  public long getP90() {
+    return getValueAtPercentile(90);
+  }
+
+  /**
+   * @return the 99th percentile.
+   */
+  public long getP99() {
+    return getValueAtPercentile(99);
+  }
+
+  /**
+   * @return the 99.9th percentile.
+   */
+  public long getP999() {
+    return getValueAtPercentile(99.9);
+  }
+
+  @Override
+  public String toString() {
+    return "TurnHistogram{"
+            + "count=" + count
+            + ", p50=" + getP50()
+            + ", p90=" + getP90()
+            + ", p99=" + getP99()
+            + ", p99.9=" + getP999()
+            + ", max=" + max
+            + '}';
+  }
+}
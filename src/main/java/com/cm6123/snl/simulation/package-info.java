@@ -0,0 +1,4 @@
+/**
+ * Headless simulation of many Snakes and Ladders games.
+ */
+package com.cm6123.snl.simulation;
@@ -0,0 +1,32 @@
+package com.cm6123.snl;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class BoardTemplatesTest {
+
+  private static final Integer[] NONE = new Integer[0];
+
+  @Test
+  void the_same_layout_shares_a_board() {
+    Board first = BoardTemplates.get(10, new Integer[]{40, 3}, NONE, NONE, false, 12);
+    Board second = BoardTemplates.get(10, new Integer[]{40, 3}, NONE, NONE, false, 12);
+    Assertions.assertSame(first, second);
+  }
+
+  @Test
+  void very_big_boards_are_not_cached() {
+    Board first = BoardTemplates.get(1000, NONE, NONE, NONE, false, 12);
+    Board second = BoardTemplates.get(1000, NONE, NONE, NONE, false, 12);
+    Assertions.assertNotSame(first, second);
+  }
+
+  @Test
+  void the_cache_stays_within_its_weight() {
+    for (int width = 100; width < 160; width++) {
+      BoardTemplates.get(width, NONE, NONE, NONE, false, 36);
+    }
+    Assertions.assertTrue(BoardTemplates.cachedWeight() <= 1L << 24);
+    Assertions.assertTrue(BoardTemplates.cachedWeight() > 0);
+  }
+}
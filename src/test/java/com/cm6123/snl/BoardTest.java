@@ -3,6 +3,8 @@ package com.cm6123.snl;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+
 class BoardTest {
 
   @Test
@@ -52,5 +54,87 @@ class BoardTest {
             });
   }
 
+  @Test
+  void move_follows_snakes_and_ladders() {
+    Board aBoard = new Board(5, new Integer[]{12, 2}, new Integer[]{4, 20});
+    Assertions.assertEquals(2, aBoard.move(aBoard.start(), 12).get());
+    Assertions.assertEquals(20, aBoard.move(aBoard.start(), 4).get());
+    Assertions.assertEquals(24, aBoard.move(aBoard.start(), 30).get());
+  }
+
+  @Test
+  void flags_are_looked_up_per_square() {
+    Board aBoard = new Board(5, new Integer[0], new Integer[0], new Integer[]{7});
+    Assertions.assertTrue(aBoard.isBoostPosition(new Position(7)));
+    Assertions.assertFalse(aBoard.isBoostPosition(new Position(8)));
+    Assertions.assertTrue(aBoard.isWinningPosition(new Position(24)));
+    Assertions.assertFalse(aBoard.isWinningPosition(new Position(23)));
+  }
+
+  @Test
+  void squares_view_matches_the_layout() {
+    Board aBoard = new Board(5, new Integer[]{12, 2}, new Integer[]{4, 20}, new Integer[]{7});
+    List<Square> squares = aBoard.getSquares();
+    Assertions.assertEquals(25, squares.size());
+    Assertions.assertTrue(squares.get(12) instanceof SnakeSquare);
+    Assertions.assertEquals(2, squares.get(12).destination().getNumber());
+    Assertions.assertTrue(squares.get(4) instanceof LadderSquare);
+    Assertions.assertEquals(20, squares.get(4).destination().getNumber());
+    Assertions.assertTrue(squares.get(7).isBoostSquare());
+    Assertions.assertTrue(squares.get(24).isWinningSquare());
+  }
+
+  @Test
+  void turn_table_matches_resolved_turns() {
+    Board aBoard = new Board(6, new Integer[]{30, 4}, new Integer[]{9, 27}, new Integer[]{5, 7, 10, 15}, true);
+    aBoard.prepareTurns(12);
+    for (int from = 0; from < aBoard.size(); from++) {
+      for (int roll = 1; roll <= 14; roll++) {
+        Assertions.assertEquals(aBoard.resolveTurn(from, roll), aBoard.landing(from, roll));
+      }
+    }
+    // 0 + 5 is a boost, 10 is a boost, 15 is a boost, so 20
+    Assertions.assertEquals(20, aBoard.landing(0, 5));
+    // overshooting the last square with the winning only rule keeps the player still
+    Assertions.assertEquals(33, aBoard.landing(33, 6));
+
+    int[] copy = aBoard.turnTable(6);
+    Assertions.assertEquals(aBoard.size() * 6, copy.length);
+    Assertions.assertEquals(20, copy[5 - 1]);
+    Assertions.assertEquals(aBoard.resolveTurn(17, 4), copy[17 * 6 + 4 - 1]);
+    Assertions.assertThrows(IllegalArgumentException.class, () -> aBoard.turnTable(0));
+  }
+
+  @Test
+  void big_boards_only_store_special_squares() {
+    Board aBoard = new Board(1100, new Integer[]{500000, 12}, new Integer[]{40, 1209000}, new Integer[]{7, 1000000}, true);
+    Assertions.assertTrue(aBoard.isSparse());
+    Assertions.assertEquals(1210000, aBoard.size());
+    Assertions.assertEquals(12, aBoard.destinationOf(500000));
+    Assertions.assertEquals(1209000, aBoard.destinationOf(40));
+    Assertions.assertEquals(41, aBoard.destinationOf(41));
+    Assertions.assertTrue(aBoard.isBoostPosition(aBoard.positionAt(1000000)));
+    Assertions.assertTrue(aBoard.isWinningPosition(aBoard.positionAt(1209999)));
+    // 0 + 7 is a boost, so the turn carries on to 14
+    Assertions.assertEquals(14, aBoard.landing(0, 7));
+    Assertions.assertEquals(1209000, aBoard.landing(33, 7));
+    Assertions.assertEquals(1209995, aBoard.landing(1209995, 6));
+    Assertions.assertThrows(IllegalStateException.class,
+            () -> new Board(1100, new Integer[]{500000, 12}, new Integer[]{12, 600000}));
+  }
+
+  @Test
+  void special_squares_are_indexed() {
+    Board aBoard = new Board(6, new Integer[]{30, 4, 20, 2}, new Integer[]{9, 27}, new Integer[]{15, 5});
+    Assertions.assertArrayEquals(new int[]{20, 30}, aBoard.snakeHeads());
+    Assertions.assertArrayEquals(new int[]{9}, aBoard.ladderFeet());
+    Assertions.assertArrayEquals(new int[]{5, 15}, aBoard.boostSquares());
+    Assertions.assertEquals(2, aBoard.destinationOf(20));
+    Assertions.assertEquals(27, aBoard.destinationOf(9));
+    Assertions.assertEquals(11, aBoard.destinationOf(11));
+
+    aBoard.snakeHeads()[0] = 0;
+    Assertions.assertArrayEquals(new int[]{20, 30}, aBoard.snakeHeads());
+  }
 
 }
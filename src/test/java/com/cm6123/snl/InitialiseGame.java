@@ -135,5 +135,18 @@ public class InitialiseGame {
 
   }
 
+  @Test
+  public void games_with_the_same_layout_share_a_board() throws Exception {
+    Game first = new GameBuilder().withBoardSize(6).withSnakes(20, 3).withBoosts(7).build();
+    Game second = new GameBuilder().withBoardSize(6).withSnakes(20, 3).withBoosts(7).build();
+    Game other = new GameBuilder().withBoardSize(6).withSnakes(20, 4).withBoosts(7).build();
+
+    Assertions.assertSame(first.getBoard(), second.getBoard());
+    Assertions.assertNotSame(first.getBoard(), other.getBoard());
+
+    first.moveCurrentPlayer(3);
+    Assertions.assertEquals(3, first.positionOf(0));
+    Assertions.assertEquals(0, second.positionOf(0));
+  }
 
 }
@@ -0,0 +1,88 @@
+package com.cm6123.snl;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class LayoutReportTest {
+
+  @Test
+  void a_plain_board_finishes_from_everywhere() {
+    LayoutReport report = LayoutReport.of(new Board(4), 6, 1);
+    Assertions.assertTrue(report.finishesSurely());
+    Assertions.assertEquals(0, report.getUnreachableSquares().length);
+    Assertions.assertTrue(report.getTraps().isEmpty());
+    Assertions.assertEquals(3, report.fewestRollsToWin(0));
+    Assertions.assertEquals(1, report.fewestRollsToWin(12));
+    Assertions.assertEquals(0, report.fewestRollsToWin(15));
+  }
+
+  @Test
+  void a_ladder_skips_squares_a_one_faced_dice_would_stop_on() {
+    LayoutReport report = LayoutReport.of(new Board(4, new Integer[0], new Integer[]{2, 10}, new Integer[0]), 1, 1);
+    Assertions.assertArrayEquals(new int[]{3, 4, 5, 6, 7, 8, 9}, report.getUnreachableSquares());
+    Assertions.assertEquals(7, report.fewestRollsToWin(0));
+    Assertions.assertTrue(report.finishesSurely());
+  }
+
+  @Test
+  void a_snake_a_one_faced_dice_keeps_going_round_is_a_trap() {
+    LayoutReport report = LayoutReport.of(new Board(3, new Integer[]{5, 2}, new Integer[0], new Integer[0]), 1, 1);
+    Assertions.assertFalse(report.finishesSurely());
+    Assertions.assertEquals(1, report.getTraps().size());
+    Assertions.assertArrayEquals(new int[]{2, 3, 4}, report.getTraps().get(0));
+    Assertions.assertEquals(-1, report.fewestRollsToWin(0));
+    Assertions.assertTrue(report.finishesSurelyFrom(6));
+    Assertions.assertEquals(2, report.fewestRollsToWin(6));
+  }
+
+  @Test
+  void winning_only_can_strand_a_player_the_dice_cant_move() {
+    // two dice can't roll the 1 needed to get from 62 to 63 when overshooting isn't allowed
+    Board board = TestBoards.aBoard(true);
+    LayoutReport report = LayoutReport.of(board, 6, 2);
+    Assertions.assertFalse(report.finishesSurely());
+    Assertions.assertArrayEquals(new int[]{62}, report.getTraps().get(0));
+    Assertions.assertTrue(report.fewestRollsToWin(0) > 0);
+    Assertions.assertTrue(LayoutReport.of(board, 6, 1).finishesSurely());
+  }
+
+  @Test
+  void a_ladder_on_the_first_square_still_lets_the_game_start() {
+    LayoutReport report = LayoutReport.of(new Board(3, new Integer[0], new Integer[]{0, 4}, new Integer[0]), 6, 1);
+    Assertions.assertTrue(report.finishesSurely());
+    Assertions.assertEquals(2, report.fewestRollsToWin(0));
+    Assertions.assertTrue(report.getTraps().isEmpty());
+
+    Game game = new GameBuilder().withLadders(0, 4).withLayoutCheck(6, 1).build();
+    Assertions.assertTrue(game.getLayoutReport().finishesSurely());
+  }
+
+  @Test
+  void a_player_can_be_put_on_a_snake_head_to_start_with() {
+    Game game = new GameBuilder().withBoardSize(4).withSnakes(10, 3).withStartingPositions(10, 0).withLayoutCheck(6, 1).build();
+    Assertions.assertTrue(game.getLayoutReport().finishesSurelyFrom(10));
+    Assertions.assertEquals(1, game.getLayoutReport().fewestRollsToWin(10));
+  }
+
+  @Test
+  void games_on_the_same_board_and_dice_share_one_report() {
+    GameBuilder builder = new GameBuilder().withSnakes(10, 3).withLadders(5, 30).withLayoutCheck(6, 2);
+    LayoutReport report = builder.build().getLayoutReport();
+    Assertions.assertSame(report, builder.build().getLayoutReport());
+    Assertions.assertSame(report, LayoutReport.of(report.getBoard(), 6, 2));
+
+    LayoutReport oneDice = LayoutReport.of(report.getBoard(), 6, 1);
+    Assertions.assertNotSame(report, oneDice);
+    Assertions.assertSame(oneDice, builder.withLayoutCheck(6, 1).build().getLayoutReport());
+  }
+
+  @Test
+  void the_builder_refuses_a_layout_that_might_never_finish() {
+    GameBuilder builder = new GameBuilder().withSnakes(10, 3).withLayoutCheck(1, 1);
+    Assertions.assertThrows(IllegalStateException.class, builder::build);
+
+    Game game = new GameBuilder().withSnakes(10, 3).withLayoutCheck(6, 1).build();
+    Assertions.assertTrue(game.getLayoutReport().finishesSurely());
+    Assertions.assertNull(new GameBuilder().build().getLayoutReport());
+  }
+}
@@ -5,6 +5,9 @@ import com.cm6123.snl.dice.LoadedDiceFactory;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class PlayGame {
 
 
@@ -351,4 +354,229 @@ public class PlayGame {
     // player should win, i.e game is over.
     Assertions.assertTrue(newGame.isGameOver());
   }
-}
\ No newline at end of file
+
+  @Test
+  public void position_of_matches_player_data() {
+    Game newGame = new GameBuilder()
+            .withBoardSize(10)
+            .withPlayers(2)
+            .withLadders(3, 40)
+            .build();
+    newGame.moveCurrentPlayer(3);
+    newGame.moveCurrentPlayer(5);
+
+    Assertions.assertEquals(40, newGame.positionOf(0));
+    Assertions.assertEquals(5, newGame.positionOf(1));
+    Assertions.assertEquals(newGame.positionOf(1), newGame.getPlayerData(1).getPosition().get());
+    Assertions.assertSame(newGame.getBoard().positionAt(40), newGame.getPlayerData(0).getPosition());
+  }
+
+  @Test
+  public void snapshot_and_restore_state() {
+    Game newGame = new GameBuilder()
+            .withBoardSize(10)
+            .withPlayers(3)
+            .build();
+    newGame.moveCurrentPlayer(4);
+    newGame.moveCurrentPlayer(6);
+    long saved = newGame.snapshotState();
+
+    newGame.moveCurrentPlayer(5);
+    newGame.moveCurrentPlayer(3);
+    newGame.restoreState(saved);
+
+    Assertions.assertEquals(4, newGame.positionOf(0));
+    Assertions.assertEquals(6, newGame.positionOf(1));
+    Assertions.assertEquals(0, newGame.positionOf(2));
+    Assertions.assertEquals(2, newGame.getCurrentPlayerIndex());
+    Assertions.assertEquals(saved, newGame.snapshotState());
+  }
+
+  @Test
+  public void wide_snapshot_on_a_big_board() {
+    Game newGame = new GameBuilder()
+            .withBoardSize(200)
+            .withPlayers(5)
+            .withStartingPositions(39999, 12345, 2, 30000, 7)
+            .withCurrentPlayer(4)
+            .build();
+    Assertions.assertFalse(newGame.getStateCodec().fitsInLong());
+    Assertions.assertThrows(IllegalStateException.class, newGame::snapshotState);
+    Assertions.assertThrows(IllegalStateException.class, () -> newGame.restoreState(0x123456789L));
+    Assertions.assertEquals(39999, newGame.positionOf(0));
+
+    long[] saved = newGame.snapshotStateWide();
+    newGame.moveCurrentPlayer(6);
+    newGame.restoreState(saved);
+
+    Assertions.assertEquals(12345, newGame.positionOf(1));
+    Assertions.assertEquals(30000, newGame.positionOf(3));
+    Assertions.assertEquals(7, newGame.positionOf(4));
+    Assertions.assertEquals(3, newGame.getCurrentPlayerIndex());
+  }
+
+  @Test
+  public void undo_redo_and_replay_with_the_journal() {
+    Game newGame = new GameBuilder()
+            .withBoardSize(10)
+            .withPlayers(2)
+            .withSnakes(97, 3, 88, 4, 76, 5, 61, 6, 50, 7)
+            .withIsWinningEnabled()
+            .build();
+    newGame.enableJournal(6);
+    int[] rolls = new int[300];
+    long[] states = new long[rolls.length + 1];
+    states[0] = newGame.snapshotState();
+    for (int turn = 0; turn < rolls.length && !newGame.isGameOver(); turn++) {
+      rolls[turn] = 1 + (turn * 7) % 6;
+      newGame.moveCurrentPlayer(rolls[turn]);
+      states[turn + 1] = newGame.snapshotState();
+    }
+    int played = newGame.getTurn();
+    Assertions.assertTrue(played > MoveJournal.KEYFRAME_INTERVAL + 5, "played " + played);
+
+    newGame.undo();
+    newGame.undo();
+    Assertions.assertEquals(states[played - 2], newGame.snapshotState());
+    newGame.redo();
+    Assertions.assertEquals(states[played - 1], newGame.snapshotState());
+
+    newGame.replayTo(MoveJournal.KEYFRAME_INTERVAL + 3);
+    Assertions.assertEquals(states[MoveJournal.KEYFRAME_INTERVAL + 3], newGame.snapshotState());
+    newGame.replayTo(0);
+    Assertions.assertEquals(states[0], newGame.snapshotState());
+    Assertions.assertFalse(newGame.canUndo());
+
+    int branch = MoveJournal.KEYFRAME_INTERVAL + 1;
+    newGame.replayTo(branch);
+    newGame.moveCurrentPlayer(rolls[branch] == 6 ? 1 : rolls[branch] + 1);
+    Assertions.assertFalse(newGame.canRedo());
+    newGame.undo();
+    Assertions.assertEquals(states[branch], newGame.snapshotState());
+    Assertions.assertThrows(IllegalArgumentException.class, () -> newGame.moveCurrentPlayer(7));
+  }
+
+  @Test
+  public void move_many_stops_when_someone_wins() {
+    Game newGame = new GameBuilder()
+            .withBoardSize(4)
+            .withPlayers(2)
+            .build();
+    GameResult result = newGame.moveMany(new int[]{6, 1, 6, 1, 3, 2, 2});
+
+    Assertions.assertTrue(result.isFinished());
+    Assertions.assertEquals(0, result.getWinner());
+    Assertions.assertEquals(5, result.getTurns());
+    Assertions.assertEquals(15, result.getFinalPosition(0));
+    Assertions.assertEquals(2, result.getFinalPosition(1));
+    Assertions.assertTrue(newGame.isGameOver());
+  }
+
+  @Test
+  public void play_until_end_with_loaded_dice() {
+    Game newGame = new GameBuilder()
+            .withBoardSize(4)
+            .withPlayers(2)
+            .build();
+    GameResult result = newGame.playUntilEnd(new DiceSet(6, 1, new LoadedDiceFactory(4)), 100);
+
+    Assertions.assertEquals(0, result.getWinner());
+    Assertions.assertEquals(7, result.getTurns());
+    Assertions.assertEquals(12, result.getFinalPosition(1));
+  }
+
+  @Test
+  public void play_until_end_respects_the_turn_limit() {
+    Game newGame = new GameBuilder()
+            .withBoardSize(4)
+            .withPlayers(1)
+            .withIsWinningEnabled()
+            .withStartingPositions(14)
+            .build();
+    GameResult result = newGame.playUntilEnd(() -> 5, 20);
+
+    Assertions.assertFalse(result.isFinished());
+    Assertions.assertEquals(-1, result.getWinner());
+    Assertions.assertEquals(20, result.getTurns());
+    Assertions.assertEquals(14, result.getFinalPosition(0));
+  }
+
+  @Test
+  public void listeners_hear_about_each_step_of_a_move() {
+    Game newGame = new GameBuilder()
+            .withBoardSize(10)
+            .withPlayers(2)
+            .withBoosts(3)
+            .withSnakes(6, 1)
+            .withLadders(8, 95)
+            .build();
+    List<String> events = new ArrayList<>();
+    newGame.addListener(new GameEventListener() {
+      @Override
+      public void playerMoved(final int player, final int from, final int to) {
+        events.add("moved " + player + " " + from + "->" + to);
+      }
+
+      @Override
+      public void boostTaken(final int player, final int square) {
+        events.add("boost " + player + " " + square);
+      }
+
+      @Override
+      public void snakeTaken(final int player, final int head, final int tail) {
+        events.add("snake " + player + " " + head + "->" + tail);
+      }
+
+      @Override
+      public void ladderTaken(final int player, final int foot, final int top) {
+        events.add("ladder " + player + " " + foot + "->" + top);
+      }
+
+      @Override
+      public void turnPassed(final int fromPlayer, final int toPlayer) {
+        events.add("turn " + fromPlayer + "->" + toPlayer);
+      }
+
+      @Override
+      public void gameWon(final int player) {
+        events.add("won " + player);
+      }
+    });
+
+    newGame.moveCurrentPlayer(3);
+    newGame.moveCurrentPlayer(8);
+    newGame.moveMany(new int[]{4});
+
+    Assertions.assertEquals(List.of(
+            "boost 0 3", "snake 0 6->1", "moved 0 0->1", "turn 0->1",
+            "ladder 1 8->95", "moved 1 0->95", "turn 1->0",
+            "moved 0 1->5", "turn 0->1"), events);
+
+    newGame.moveCurrentPlayer(5);
+    Assertions.assertEquals("won 1", events.get(events.size() - 1));
+  }
+
+  @Test
+  public void listeners_can_be_told_through_an_executor() {
+    Game newGame = new GameBuilder().withBoardSize(4).withPlayers(1).build();
+    List<Runnable> queued = new ArrayList<>();
+    List<Integer> moves = new ArrayList<>();
+    GameEventListener listener = new GameEventListener() {
+      @Override
+      public void playerMoved(final int player, final int from, final int to) {
+        moves.add(to);
+      }
+    };
+    newGame.addListener(listener, queued::add);
+
+    newGame.moveCurrentPlayer(2);
+    Assertions.assertTrue(moves.isEmpty());
+    queued.forEach(Runnable::run);
+    Assertions.assertEquals(List.of(2), moves);
+
+    newGame.removeListener(listener);
+    queued.clear();
+    newGame.moveCurrentPlayer(2);
+    Assertions.assertTrue(queued.isEmpty());
+  }
+}
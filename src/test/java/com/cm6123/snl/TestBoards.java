@@ -0,0 +1,33 @@
+package com.cm6123.snl;
+
+/**
+ * The 8 x 8 layout the simulation and analytics tests share: snakes 60 to 3 and 41 to 10,
+ * ladders 5 to 30 and 22 to 50, and boosts on 17 and 34.
+ */
+public final class TestBoards {
+
+  private TestBoards() {
+    //do nothing
+  }
+
+  /**
+   * @param players - how many players
+   * @return a builder for the shared layout, which the caller may go on to change.
+   */
+  public static GameBuilder aGame(final int players) {
+    return new GameBuilder()
+            .withPlayers(players)
+            .withBoardSize(8)
+            .withSnakes(60, 3, 41, 10)
+            .withLadders(5, 30, 22, 50)
+            .withBoosts(17, 34);
+  }
+
+  /**
+   * @param isWinningOnly - true if a player has to land exactly on the last square
+   * @return the shared layout as a Board.
+   */
+  public static Board aBoard(final boolean isWinningOnly) {
+    return new Board(8, new Integer[]{60, 3, 41, 10}, new Integer[]{5, 30, 22, 50}, new Integer[]{17, 34}, isWinningOnly);
+  }
+}
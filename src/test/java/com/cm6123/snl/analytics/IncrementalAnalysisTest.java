@@ -0,0 +1,63 @@
+package com.cm6123.snl.analytics;
+
+import com.cm6123.snl.Board;
+import com.cm6123.snl.TestBoards;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class IncrementalAnalysisTest {
+
+  private void assertMatchesAFreshSolve(final IncrementalAnalysis analysis) {
+    MarkovSolver fresh = new MarkovSolver(TransitionMatrix.of(analysis.getBoard(), 6, 2));
+    Assertions.assertArrayEquals(fresh.expectedTurns(), analysis.getExpectedTurns(), 1e-9);
+    Assertions.assertEquals(fresh.expectedTurnsFromStart(), analysis.getExpectedTurnsFromStart(), 1e-9);
+  }
+
+  @Test
+  void the_first_solve_matches_the_markov_solver() {
+    assertMatchesAFreshSolve(new IncrementalAnalysis(TestBoards.aBoard(false), 6, 2));
+  }
+
+  @Test
+  void each_edit_matches_a_fresh_solve() {
+    IncrementalAnalysis analysis = new IncrementalAnalysis(TestBoards.aBoard(false), 6, 2);
+    LayoutEdit[] edits = {
+        LayoutEdit.moveSnake(60, 58, 12),
+        LayoutEdit.addSnake(45, 2),
+        LayoutEdit.moveLadder(22, 24, 55),
+        LayoutEdit.addLadder(7, 40),
+        LayoutEdit.moveBoost(17, 19),
+        LayoutEdit.addBoost(52),
+        LayoutEdit.remove(41),
+        LayoutEdit.remove(5),
+        LayoutEdit.remove(34)
+    };
+    for (LayoutEdit edit : edits) {
+      double expected = analysis.apply(edit);
+      Assertions.assertEquals(analysis.getExpectedTurnsFromStart(), expected);
+      assertMatchesAFreshSolve(analysis);
+    }
+    Assertions.assertArrayEquals(new int[]{12, 2, 41}, new int[]{
+        analysis.getBoard().destinationOf(58), analysis.getBoard().destinationOf(45), analysis.getBoard().destinationOf(41)});
+  }
+
+  @Test
+  void an_edit_leaves_the_old_board_alone() {
+    Board board = TestBoards.aBoard(false);
+    Board edited = LayoutEdit.addSnake(45, 2).applyTo(board);
+    Assertions.assertEquals(45, board.destinationOf(45));
+    Assertions.assertEquals(2, edited.destinationOf(45));
+  }
+
+  @Test
+  void removing_an_empty_square_is_refused() {
+    IncrementalAnalysis analysis = new IncrementalAnalysis(TestBoards.aBoard(false), 6, 2);
+    Assertions.assertThrows(IllegalArgumentException.class, () -> analysis.apply(LayoutEdit.remove(44)));
+  }
+
+  @Test
+  void a_clashing_edit_is_refused() {
+    IncrementalAnalysis analysis = new IncrementalAnalysis(TestBoards.aBoard(false), 6, 2);
+    Assertions.assertThrows(IllegalStateException.class, () -> analysis.apply(LayoutEdit.addLadder(17, 40)));
+  }
+}
@@ -0,0 +1,83 @@
+package com.cm6123.snl.analytics;
+
+import com.cm6123.snl.Board;
+import com.cm6123.snl.TestBoards;
+import com.cm6123.snl.simulation.SimulationEngine;
+import com.cm6123.snl.simulation.SimulationResult;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class MarkovSolverTest {
+
+  @Test
+  void a_one_faced_dice_takes_a_known_number_of_turns() {
+    MarkovSolver solver = new MarkovSolver(TransitionMatrix.of(new Board(2), 1, 1));
+    Assertions.assertArrayEquals(new double[]{3, 2, 1, 0}, solver.expectedTurns(), 1e-12);
+    Assertions.assertArrayEquals(new double[]{0, 0, 0, 1, 1}, solver.finishedBy(4), 1e-12);
+  }
+
+  @Test
+  void rows_add_up_to_one() {
+    TransitionMatrix matrix = TransitionMatrix.of(TestBoards.aBoard(true), 6, 2);
+    for (int from = 0; from < matrix.last(); from++) {
+      double total = 0;
+      for (int to = 0; to < matrix.size(); to++) {
+        total += matrix.chanceOf(from, to);
+      }
+      Assertions.assertEquals(1, total, 1e-12);
+    }
+    // the snake head and ladder foot are never where a turn ends, unless the turn stayed put
+    for (int from = 0; from < matrix.last(); from++) {
+      if (from != 60) {
+        Assertions.assertEquals(0, matrix.chanceOf(from, 60));
+      }
+      Assertions.assertEquals(0, matrix.chanceOf(from, 5));
+    }
+  }
+
+  @Test
+  void the_finishing_distribution_agrees_with_the_expected_turns() {
+    MarkovSolver solver = new MarkovSolver(TransitionMatrix.of(TestBoards.aBoard(true), 6, 1));
+    double expected = solver.expectedTurnsFromStart();
+    double[] finished = solver.finishedBy(5000);
+    double total = 0;
+    for (int turn = 0; turn < finished.length; turn++) {
+      if (turn > 0) {
+        Assertions.assertTrue(finished[turn] >= finished[turn - 1]);
+      }
+      total += 1 - finished[turn];
+    }
+    Assertions.assertEquals(expected, total, 1e-6);
+  }
+
+  @Test
+  void a_square_the_dice_cannot_finish_from_makes_the_game_endless() {
+    // two dice can't roll the 1 needed to get from 62 to 63 when overshooting isn't allowed
+    MarkovSolver solver = new MarkovSolver(TransitionMatrix.of(TestBoards.aBoard(true), 6, 2));
+    Assertions.assertFalse(solver.getMatrix().canFinish()[62]);
+    Assertions.assertTrue(Double.isInfinite(solver.expectedTurnsFromStart()));
+    Assertions.assertTrue(solver.finishedBy(2000)[2000] < 1);
+  }
+
+  @Test
+  void the_expected_turns_match_a_simulation() {
+    MarkovSolver solver = new MarkovSolver(TransitionMatrix.of(TestBoards.aBoard(true), 6, 1));
+    SimulationResult result = new SimulationEngine(TestBoards.aGame(1).withIsWinningEnabled(), 6, 1)
+            .run(20_000, 1L);
+
+    double error = Math.sqrt(result.getTurnVariance() / result.getFinishedGames());
+    Assertions.assertEquals(solver.expectedTurnsFromStart(), result.getMeanTurns(), 4 * error);
+  }
+
+  @Test
+  void squares_that_can_never_finish_take_forever() {
+    // two one faced dice always roll 2, and the odd squares overshoot the last square
+    MarkovSolver solver = new MarkovSolver(TransitionMatrix.of(new Board(3, new Integer[0], new Integer[0], new Integer[0], true), 1, 2));
+    double[] expected = solver.expectedTurns();
+    Assertions.assertEquals(4, expected[0], 1e-12);
+    Assertions.assertTrue(Double.isInfinite(expected[1]));
+    Assertions.assertTrue(Double.isInfinite(expected[7]));
+    Assertions.assertFalse(solver.getMatrix().canFinish()[7]);
+    Assertions.assertEquals(0, solver.finishedBy(1, 100)[100]);
+  }
+}
@@ -0,0 +1,83 @@
+package com.cm6123.snl.analytics;
+
+import com.cm6123.snl.Board;
+import com.cm6123.snl.TestBoards;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class SensitivityReportTest {
+
+  private double solve(final Board board) {
+    return new MarkovSolver(TransitionMatrix.of(board, 6, 1)).expectedTurnsFromStart();
+  }
+
+  @Test
+  void a_square_stopped_on_once_gives_exact_answers() {
+    // a one faced dice walks every square once
+    SensitivityReport plain = SensitivityReport.of(new Board(3), 1, 1);
+    Assertions.assertEquals(8, plain.getExpectedTurnsFromStart(), 1e-12);
+    Assertions.assertEquals(-4, plain.addingLadder(2, 6), 1e-12);
+    Assertions.assertEquals(-1, plain.getBoostEffects()[4], 1e-12);
+
+    SensitivityReport laddered = SensitivityReport.of(
+            new Board(3, new Integer[0], new Integer[]{2, 6}, new Integer[]{7}), 1, 1);
+    Assertions.assertEquals(3, laddered.getExpectedTurnsFromStart(), 1e-12);
+    Assertions.assertEquals(-4, laddered.contributionOf(2), 1e-12);
+    Assertions.assertEquals(-1, laddered.contributionOf(7), 1e-12);
+  }
+
+  @Test
+  void the_visits_add_up_to_the_expected_turns() {
+    SensitivityReport report = SensitivityReport.of(TestBoards.aBoard(false), 6, 1);
+    double[] visits = report.getVisits();
+    double total = 0;
+    for (int square = 0; square < visits.length - 1; square++) {
+      total += visits[square];
+    }
+    Assertions.assertEquals(report.getExpectedTurnsFromStart(), total, 1e-9);
+    Assertions.assertEquals(1, visits[visits.length - 1], 1e-9);
+    Assertions.assertEquals(0, visits[60]);
+  }
+
+  @Test
+  void snakes_lengthen_the_game_and_ladders_shorten_it() {
+    SensitivityReport report = SensitivityReport.of(TestBoards.aBoard(false), 6, 1);
+    Assertions.assertTrue(report.contributionOf(60) > 0);
+    Assertions.assertTrue(report.contributionOf(41) > 0);
+    Assertions.assertTrue(report.contributionOf(5) < 0);
+    Assertions.assertTrue(report.contributionOf(22) < 0);
+    Assertions.assertTrue(report.getBoostEffects()[20] < 0);
+    Assertions.assertEquals(0, report.getBoostEffects()[60]);
+  }
+
+  @Test
+  void small_changes_are_close_to_a_fresh_solve() {
+    Board board = TestBoards.aBoard(false);
+    SensitivityReport report = SensitivityReport.of(board, 6, 1);
+    double before = solve(board);
+    double snake = solve(new Board(8, new Integer[]{60, 3, 41, 10, 45, 43},
+            new Integer[]{5, 30, 22, 50}, new Integer[]{17, 34}, false)) - before;
+    // first order misses the turns that come back to the new snake, so it comes out short
+    double estimate = report.addingSnake(45, 43);
+    Assertions.assertTrue(estimate > 0.75 * snake && estimate < snake);
+    double ladder = solve(new Board(8, new Integer[]{60, 3, 41, 10},
+            new Integer[]{5, 30, 22, 50, 12, 14}, new Integer[]{17, 34}, false)) - before;
+    Assertions.assertEquals(ladder, report.addingLadder(12, 14), 0.05 * Math.abs(ladder));
+  }
+
+  @Test
+  void bad_squares_are_refused() {
+    SensitivityReport report = SensitivityReport.of(TestBoards.aBoard(false), 6, 1);
+    Assertions.assertThrows(IllegalArgumentException.class, () -> report.contributionOf(44));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> report.addingSnake(60, 2));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> report.addingSnake(44, 50));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> report.addingLadder(44, 80));
+  }
+
+  @Test
+  void a_game_that_might_never_finish_has_no_report() {
+    // two dice can't roll the 1 needed to get from 62 to 63 when overshooting isn't allowed
+    Board board = TestBoards.aBoard(true);
+    Assertions.assertThrows(IllegalStateException.class, () -> SensitivityReport.of(board, 6, 2));
+  }
+}
@@ -0,0 +1,80 @@
+package com.cm6123.snl.analytics;
+
+import com.cm6123.snl.Board;
+import com.cm6123.snl.Game;
+import com.cm6123.snl.TestBoards;
+import com.cm6123.snl.simulation.SimulationEngine;
+import com.cm6123.snl.simulation.SimulationResult;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class WinProbabilitySolverTest {
+
+  private TransitionMatrix aMatrix() {
+    return TransitionMatrix.of(TestBoards.aGame(1).build().getBoard(), 6, 2);
+  }
+
+  @Test
+  void one_player_always_wins_in_the_expected_turns() {
+    WinOdds odds = new WinProbabilitySolver(aMatrix()).solve(1);
+    Assertions.assertEquals(1, odds.getWinProbability(0), 1e-9);
+    Assertions.assertEquals(new MarkovSolver(aMatrix()).expectedTurnsFromStart(), odds.getExpectedTurns(), 1e-6);
+  }
+
+  @Test
+  void the_first_player_wins_a_race_of_equals() {
+    // a one faced dice takes every player three turns
+    WinOdds odds = new WinProbabilitySolver(TransitionMatrix.of(new Board(2), 1, 1)).solve(2);
+    Assertions.assertEquals(1, odds.getWinProbability(0), 1e-12);
+    Assertions.assertEquals(0, odds.getWinProbability(1), 1e-12);
+    Assertions.assertEquals(5, odds.getExpectedTurns(), 1e-12);
+  }
+
+  @Test
+  void the_odds_match_a_simulation() {
+    WinOdds odds = new WinProbabilitySolver(aMatrix()).solve(3);
+    SimulationResult result = new SimulationEngine(TestBoards.aGame(3), 6, 2).run(30_000, 2L);
+
+    double total = 0;
+    for (int player = 0; player < 3; player++) {
+      double p = odds.getWinProbability(player);
+      total += p;
+      double error = Math.sqrt(p * (1 - p) / result.getGames());
+      Assertions.assertEquals(p, result.getWinProbability(player), 4 * error);
+    }
+    Assertions.assertEquals(1, total, 1e-9);
+    double error = Math.sqrt(result.getTurnVariance() / result.getGames());
+    Assertions.assertEquals(odds.getExpectedTurns(), result.getMeanTurns(), 4 * error);
+  }
+
+  @Test
+  void a_game_in_progress_is_scored_from_where_it_is() {
+    Game game = TestBoards.aGame(3).build();
+    game.moveCurrentPlayer(7);
+    game.moveCurrentPlayer(9);
+    WinProbabilitySolver solver = new WinProbabilitySolver(aMatrix());
+    WinOdds fromGame = solver.solve(game);
+    WinOdds fromState = solver.solve(new int[]{game.positionOf(0), game.positionOf(1), 0}, 2);
+
+    for (int player = 0; player < 3; player++) {
+      Assertions.assertEquals(fromState.getWinProbability(player), fromGame.getWinProbability(player), 1e-15);
+    }
+    Assertions.assertTrue(fromGame.getWinProbability(1) > fromGame.getWinProbability(2));
+  }
+
+  @Test
+  void first_movers_have_an_advantage() {
+    double[] advantages = new WinProbabilitySolver(aMatrix()).firstMoverAdvantages();
+    Assertions.assertEquals(5, advantages.length);
+    Assertions.assertEquals(0, advantages[0], 1e-9);
+    for (int players = 2; players <= 5; players++) {
+      Assertions.assertTrue(advantages[players - 1] > 0);
+    }
+  }
+
+  @Test
+  void a_finished_game_cannot_be_scored() {
+    WinProbabilitySolver solver = new WinProbabilitySolver(aMatrix());
+    Assertions.assertThrows(IllegalStateException.class, () -> solver.solve(new int[]{10, 63}, 0));
+  }
+}
@@ -152,5 +152,144 @@ class DiceTest {
 
   }
 
-}
+  @Test
+  void sameSeedRollsTheSame() {
+
+    DiceSet first = new DiceSet(6, 2, new RandomDiceFactory(42L));
+    DiceSet second = new DiceSet(6, 2, new RandomDiceFactory(42L));
+
+    for (int i = 0; i < 100; i++) {
+      Assertions.assertEquals(first.roll().getValue(), second.roll().getValue());
+    }
+
+  }
+
+  @Test
+  void streamsDependOnlyOnSeedAndStreamNumber() {
+
+    RandomDiceFactory factory = new RandomDiceFactory(7L);
+    RandomDiceFactory later = new RandomDiceFactory(7L);
+    later.makeDice(6, 3);
+
+    Assertions.assertEquals(factory.forStream(5).getSeed(), later.forStream(5).getSeed());
+    Assertions.assertNotEquals(factory.forStream(5).getSeed(), factory.forStream(6).getSeed());
+
+    Dice a = factory.forStream(5).makeDice(6, 1).get(0);
+    Dice b = later.forStream(5).makeDice(6, 1).get(0);
+    for (int i = 0; i < 100; i++) {
+      Assertions.assertEquals(a.roll(), b.roll());
+    }
+
+  }
+
+  @Test
+  void rollPackedKeepsTheSumAndTheDouble() {
+
+    int packed = new DiceSet(6, 2, new LoadedDiceFactory(4, 4)).rollPacked();
+    Assertions.assertEquals(8, DiceSet.packedValue(packed));
+    Assertions.assertTrue(DiceSet.packedAllTheSame(packed));
+
+    packed = new DiceSet(6, 3, new LoadedDiceFactory(4, 4, 2)).rollPacked();
+    Assertions.assertEquals(10, DiceSet.packedValue(packed));
+    Assertions.assertFalse(DiceSet.packedAllTheSame(packed));
+
+    packed = new DiceSet(6, 1, new LoadedDiceFactory(5)).rollPacked();
+    Assertions.assertEquals(5, DiceSet.packedValue(packed));
+    Assertions.assertFalse(DiceSet.packedAllTheSame(packed));
+
+  }
+
+  @Test
+  void rollIntoFillsTheBuffer() {
+
+    int[] rolls = new int[1000];
+    new DiceSet(6, 2, new RandomDiceFactory(3L)).rollInto(rolls);
+    for (int roll : rolls) {
+      Assertions.assertTrue(roll >= 2 && roll <= 12);
+    }
+
+  }
+
+  @Test
+  void distributionOfTwoDice() {
+
+    DiceDistribution twoD6 = DiceDistribution.of(6, 2);
+    Assertions.assertEquals(6.0 / 36, twoD6.probabilityOf(7), 1e-12);
+    Assertions.assertEquals(1.0 / 36, twoD6.probabilityOf(12), 1e-12);
+    Assertions.assertEquals(1.0 / 36, twoD6.probabilityAllTheSame(12), 1e-12);
+    Assertions.assertEquals(0.0, twoD6.probabilityAllTheSame(7), 1e-12);
+    Assertions.assertEquals(0.0, twoD6.probabilityOf(13), 1e-12);
+    Assertions.assertSame(twoD6, DiceDistribution.of(6, 2));
+
+    double total = 0;
+    DiceDistribution tenD6 = DiceDistribution.of(6, 10);
+    for (int sum = tenD6.minSum(); sum <= tenD6.maxSum(); sum++) {
+      total += tenD6.probabilityOf(sum);
+    }
+    Assertions.assertEquals(1.0, total, 1e-9);
+
+  }
+
+  @Test
+  void onlyPossibleOutcomesCanBeSampled() {
+
+    // 3d6: sums 4 to 17 without all the same, and the six triples
+    Assertions.assertEquals(20, DiceDistribution.of(6, 3).possibleOutcomes());
+    Assertions.assertEquals(8, DiceDistribution.of(3, 3).possibleOutcomes());
+    Assertions.assertEquals(25, DiceDistribution.of(6, 4).possibleOutcomes());
+    Assertions.assertEquals(1, DiceDistribution.of(1, 5).possibleOutcomes());
+    Assertions.assertEquals(6, DiceDistribution.of(6, 1).possibleOutcomes());
+    Assertions.assertEquals(5 * 40 - 1 + 6, DiceDistribution.of(6, 40).possibleOutcomes());
+
+  }
 
+  @Test
+  void setsWithMoreRollsThanADoubleHoldStillAddUp() {
+
+    // 6^400 rolls is far past the largest double
+    DiceDistribution distribution = DiceDistribution.of(6, 400);
+    double total = 0, mean = 0, square = 0;
+    for (int sum = distribution.minSum(); sum <= distribution.maxSum(); sum++) {
+      double chance = distribution.probabilityOf(sum);
+      Assertions.assertFalse(Double.isNaN(chance));
+      total += chance;
+      mean += chance * sum;
+      square += chance * sum * (double) sum;
+    }
+    Assertions.assertEquals(1, total, 1e-9);
+    Assertions.assertEquals(1400, mean, 1e-6);
+    Assertions.assertEquals(400 * 35.0 / 12, square - mean * mean, 1e-3);
+
+    DiceSet diceSet = new DiceSet(6, 400, new RandomDiceFactory(5L));
+    int rolls = 20000;
+    double sampledMean = 0, sampledSquare = 0;
+    for (int i = 0; i < rolls; i++) {
+      int value = DiceSet.packedValue(diceSet.rollPacked());
+      sampledMean += value;
+      sampledSquare += value * (double) value;
+    }
+    sampledMean /= rolls;
+    double sampledVariance = sampledSquare / rolls - sampledMean * sampledMean;
+    Assertions.assertEquals(1400, sampledMean, 2);
+    Assertions.assertEquals(400 * 35.0 / 12, sampledVariance, 0.05 * 400 * 35.0 / 12);
+
+  }
+
+  @Test
+  void samplingMatchesTheDistribution() {
+
+    DiceSet diceSet = new DiceSet(6, 2, new RandomDiceFactory(11L));
+    Assertions.assertNotNull(diceSet.getDistribution());
+    int rolls = 360000;
+    int sevens = 0, doubles = 0;
+    for (int i = 0; i < rolls; i++) {
+      int packed = diceSet.rollPacked();
+      sevens += DiceSet.packedValue(packed) == 7 ? 1 : 0;
+      doubles += DiceSet.packedAllTheSame(packed) ? 1 : 0;
+    }
+    Assertions.assertEquals(1.0 / 6, (double) sevens / rolls, 0.005);
+    Assertions.assertEquals(1.0 / 6, (double) doubles / rolls, 0.005);
+
+  }
+
+}
@@ -0,0 +1,101 @@
+package com.cm6123.snl.dice;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+class RollTapeTest {
+
+  @Test
+  void replayGivesTheRecordedRolls() throws Exception {
+
+    Path file = Files.createTempFile("rolls", ".tape");
+    int[] recorded = new int[5000];
+    try (TapeRecordingDiceFactory recorder = new TapeRecordingDiceFactory(file, new RandomDiceFactory(99L))) {
+      DiceSet diceSet = new DiceSet(6, 3, recorder);
+      for (int i = 0; i < recorded.length; i++) {
+        recorded[i] = diceSet.rollInt();
+      }
+      Assertions.assertEquals(15000, recorder.getRollCount());
+    }
+
+    try (TapeReplayDiceFactory player = new TapeReplayDiceFactory(file)) {
+      DiceSet diceSet = new DiceSet(6, 3, player);
+      for (int value : recorded) {
+        Assertions.assertEquals(value, diceSet.rollInt());
+      }
+      Assertions.assertEquals(0, player.remaining());
+      Assertions.assertThrows(IllegalStateException.class, diceSet::rollInt);
+      Assertions.assertThrows(IllegalArgumentException.class, () -> new DiceSet(12, 1, player));
+    } finally {
+      Files.delete(file);
+    }
+
+  }
+
+  @Test
+  void tapeGrowsPastTheFirstMapping() throws Exception {
+
+    Path file = Files.createTempFile("rolls", ".tape");
+    int count = (1 << 20) + 77;
+    try (TapeRecordingDiceFactory recorder = new TapeRecordingDiceFactory(file, new LoadedDiceFactory(5))) {
+      DiceSet diceSet = new DiceSet(20, 1, recorder);
+      for (int i = 0; i < count; i++) {
+        diceSet.rollInt();
+      }
+    }
+
+    try (TapeReplayDiceFactory player = new TapeReplayDiceFactory(file)) {
+      Assertions.assertEquals(count, player.getRollCount());
+      Dice dice = player.makeDice(20, 1).get(0);
+      for (int i = 0; i < count; i++) {
+        Assertions.assertEquals(5, dice.rollInt());
+      }
+    } finally {
+      Files.delete(file);
+    }
+
+  }
+
+  @Test
+  void aTapeWithABadHeaderIsRefused() throws Exception {
+
+    Path file = Files.createTempFile("rolls", ".tape");
+    try {
+      try (TapeRecordingDiceFactory recorder = new TapeRecordingDiceFactory(file, new RandomDiceFactory(3L))) {
+        DiceSet diceSet = new DiceSet(6, 2, recorder);
+        for (int i = 0; i < 100; i++) {
+          diceSet.rollInt();
+        }
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new DiceSet(6, 3, recorder));
+      }
+      try (TapeReplayDiceFactory player = new TapeReplayDiceFactory(file)) {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new DiceSet(6, 3, player));
+      }
+
+      patch(file, RollTape.BITS_OFFSET, ByteBuffer.allocate(4).putInt(0, 7));
+      Assertions.assertThrows(IOException.class, () -> new TapeReplayDiceFactory(file));
+      patch(file, RollTape.BITS_OFFSET, ByteBuffer.allocate(4).putInt(0, 3));
+      // more rolls than the recorder's first mapping has room for
+      patch(file, RollTape.COUNT_OFFSET, ByteBuffer.allocate(8).putLong(0, 2L << 20));
+      Assertions.assertThrows(IOException.class, () -> new TapeReplayDiceFactory(file));
+      patch(file, 0, ByteBuffer.allocate(4).putInt(0, 42));
+      Assertions.assertThrows(IOException.class, () -> new TapeReplayDiceFactory(file));
+    } finally {
+      Files.delete(file);
+    }
+
+  }
+
+  private void patch(final Path file, final int offset, final ByteBuffer bytes) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+      channel.write(bytes, offset);
+    }
+  }
+}
@@ -0,0 +1,67 @@
+package com.cm6123.snl.simulation;
+
+import com.cm6123.snl.Game;
+import com.cm6123.snl.GameResult;
+import com.cm6123.snl.TestBoards;
+import com.cm6123.snl.dice.DiceSet;
+import com.cm6123.snl.dice.RandomDiceFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+class BatchSimulatorTest {
+
+  @Test
+  void one_lane_plays_the_same_games_as_game() {
+    SimulationResult lockstep = new BatchSimulator(TestBoards.aGame(2), 12, 1)
+            .run(300, new DiceSet(6, 2, new RandomDiceFactory(7L)), 10_000);
+
+    SimulationResult oneByOne = new SimulationResult(2);
+    DiceSet dice = new DiceSet(6, 2, new RandomDiceFactory(7L));
+    for (int g = 0; g < 300; g++) {
+      Game game = TestBoards.aGame(2).build();
+      GameResult result = game.playUntilEnd(dice, 10_000);
+      oneByOne.record(result);
+    }
+
+    Assertions.assertEquals(oneByOne.getWins(0), lockstep.getWins(0));
+    Assertions.assertEquals(oneByOne.getWins(1), lockstep.getWins(1));
+    Assertions.assertEquals(oneByOne.getMaxTurns(), lockstep.getMaxTurns());
+    Assertions.assertEquals(oneByOne.getMeanTurns(), lockstep.getMeanTurns(), 1e-9);
+  }
+
+  @Test
+  void many_lanes_play_every_game() {
+    SimulationResult result = new BatchSimulator(TestBoards.aGame(2), 6, 64)
+            .run(1000, new DiceSet(6, 1, new RandomDiceFactory(3L)), 10_000);
+
+    Assertions.assertEquals(1000, result.getGames());
+    Assertions.assertEquals(1000, result.getWins(0) + result.getWins(1) + result.getUnfinishedGames());
+  }
+
+  @Test
+  void rolls_outside_the_table_are_rejected() {
+    BatchSimulator simulator = new BatchSimulator(TestBoards.aGame(2), 6);
+    DiceSet dice = new DiceSet(6, 2, new RandomDiceFactory(3L));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> simulator.run(100, dice, 100));
+  }
+
+  @Test
+  void the_engine_can_play_in_lockstep() {
+    SimulationResult one = new SimulationEngine(TestBoards.aGame(2), 6, 2)
+            .withLockstep()
+            .withPool(new ForkJoinPool(1))
+            .withBatchSize(128)
+            .run(3000, 11L);
+    SimulationResult three = new SimulationEngine(TestBoards.aGame(2), 6, 2)
+            .withLockstep()
+            .withPool(new ForkJoinPool(3))
+            .withBatchSize(128)
+            .run(3000, 11L);
+
+    Assertions.assertEquals(3000, one.getGames());
+    Assertions.assertEquals(one.getWins(0), three.getWins(0));
+    Assertions.assertEquals(one.getMeanTurns(), three.getMeanTurns(), 1e-9);
+  }
+}
@@ -0,0 +1,114 @@
+package com.cm6123.snl.simulation;
+
+import com.cm6123.snl.Game;
+import com.cm6123.snl.GameBuilder;
+import com.cm6123.snl.dice.DiceSet;
+import com.cm6123.snl.dice.RandomDiceFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+class LaneSimulatorTest {
+
+  private GameBuilder aBoard() {
+    return new GameBuilder()
+            .withPlayers(3)
+            .withBoardSize(9)
+            .withSnakes(70, 3, 44, 12)
+            .withLadders(6, 33, 25, 60)
+            .withBoosts(15, 50);
+  }
+
+  @Test
+  void one_lane_plays_the_same_games_as_game() {
+    SimulationResult lanes = new LaneSimulator(aBoard(), 12, 1, new ScalarLaneKernel())
+            .run(200, new DiceSet(6, 2, new RandomDiceFactory(8L)), 10_000);
+
+    SimulationResult oneByOne = new SimulationResult(3);
+    DiceSet dice = new DiceSet(6, 2, new RandomDiceFactory(8L));
+    for (int g = 0; g < 200; g++) {
+      Game game = aBoard().build();
+      oneByOne.record(game.playUntilEnd(dice, 10_000));
+    }
+
+    for (int player = 0; player < 3; player++) {
+      Assertions.assertEquals(oneByOne.getWins(player), lanes.getWins(player));
+    }
+    Assertions.assertEquals(oneByOne.getMeanTurns(), lanes.getMeanTurns(), 1e-9);
+  }
+
+  @Test
+  void the_best_kernel_plays_like_the_plain_loop() {
+    SimulationResult plain = new LaneSimulator(aBoard(), 12, 100, new ScalarLaneKernel())
+            .run(1000, new DiceSet(6, 2, new RandomDiceFactory(4L)), 10_000);
+    SimulationResult best = new LaneSimulator(aBoard(), 12, 100)
+            .run(1000, new DiceSet(6, 2, new RandomDiceFactory(4L)), 10_000);
+
+    Assertions.assertEquals(1000, best.getGames());
+    for (int player = 0; player < 3; player++) {
+      Assertions.assertEquals(plain.getWins(player), best.getWins(player));
+    }
+    Assertions.assertEquals(plain.getMaxTurns(), best.getMaxTurns());
+  }
+
+  @Test
+  void games_over_the_turn_limit_are_unfinished() {
+    SimulationResult result = new LaneSimulator(aBoard(), 6, 16)
+            .run(50, new DiceSet(6, 1, new RandomDiceFactory(4L)), 2);
+
+    Assertions.assertEquals(50, result.getUnfinishedGames());
+  }
+
+  @Test
+  void the_vector_kernel_moves_every_lane_like_the_plain_loop() {
+    LaneKernel vector = LaneSimulator.bestKernel();
+    Assumptions.assumeTrue(vector.getClass().getSimpleName().equals("VectorLaneKernel"),
+            "The Vector API kernel isn't on the class path");
+    LaneKernel plain = new ScalarLaneKernel();
+    SplittableRandom random = new SplittableRandom(21L);
+    int last = 99;
+    int rolls = 12;
+    int[] table = new int[(last + 1) * rolls];
+    for (int entry = 0; entry < table.length; entry++) {
+      table[entry] = random.nextInt(last + 1);
+    }
+    // lane counts either side of every vector width, so the tail loop is checked too
+    for (int count : new int[]{1, 3, 8, 15, 17, 64, 100, 1000}) {
+      int[] squares = new int[count];
+      int[] roll = new int[count];
+      int[] finishedAt = new int[count];
+      for (int lane = 0; lane < count; lane++) {
+        squares[lane] = random.nextInt(last);
+        roll[lane] = 1 + random.nextInt(rolls);
+        finishedAt[lane] = random.nextInt(4) == 0 ? 1 + random.nextInt(5) : 0;
+      }
+      int[] vectorSquares = squares.clone();
+      int[] vectorFinished = finishedAt.clone();
+      int plainDone = plain.step(table, rolls, last, squares, roll.clone(), finishedAt, 6, count);
+      int vectorDone = vector.step(table, rolls, last, vectorSquares, roll.clone(), vectorFinished, 6, count);
+      Assertions.assertEquals(plainDone, vectorDone);
+      Assertions.assertArrayEquals(squares, vectorSquares);
+      Assertions.assertArrayEquals(finishedAt, vectorFinished);
+    }
+  }
+
+  @Test
+  void the_vector_kernel_plays_the_same_games_as_the_plain_loop() {
+    LaneKernel vector = LaneSimulator.bestKernel();
+    Assumptions.assumeTrue(vector.getClass().getSimpleName().equals("VectorLaneKernel"),
+            "The Vector API kernel isn't on the class path");
+    for (int lanes : new int[]{1, 13, 256}) {
+      SimulationResult plain = new LaneSimulator(aBoard(), 12, lanes, new ScalarLaneKernel())
+              .run(600, new DiceSet(6, 2, new RandomDiceFactory(9L)), 10_000);
+      SimulationResult fast = new LaneSimulator(aBoard(), 12, lanes, vector)
+              .run(600, new DiceSet(6, 2, new RandomDiceFactory(9L)), 10_000);
+      for (int player = 0; player < 3; player++) {
+        Assertions.assertEquals(plain.getWins(player), fast.getWins(player));
+      }
+      Assertions.assertEquals(plain.getMeanTurns(), fast.getMeanTurns(), 1e-9);
+      Assertions.assertEquals(plain.getMaxTurns(), fast.getMaxTurns());
+    }
+  }
+}
@@ -0,0 +1,90 @@
+package com.cm6123.snl.simulation;
+
+import com.cm6123.snl.GameBuilder;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+class SimulationEngineTest {
+
+  private GameBuilder aBoard() {
+    return new GameBuilder()
+            .withPlayers(3)
+            .withBoardSize(10)
+            .withSnakes(97, 3, 56, 14, 33, 8)
+            .withLadders(4, 60, 21, 77)
+            .withBoosts(12, 45);
+  }
+
+  @Test
+  void every_game_is_counted() {
+    SimulationResult result = new SimulationEngine(aBoard(), 6, 2)
+            .withBatchSize(100)
+            .run(1050, 5L);
+
+    Assertions.assertEquals(1050, result.getGames());
+    long wins = 0;
+    for (int player = 0; player < result.numberOfPlayers(); player++) {
+      wins += result.getWins(player);
+    }
+    Assertions.assertEquals(result.getFinishedGames(), wins);
+    Assertions.assertEquals(1050, result.getFinishedGames() + result.getUnfinishedGames());
+    Assertions.assertTrue(result.getMinTurns() <= result.getMeanTurns());
+    Assertions.assertTrue(result.getMeanTurns() <= result.getMaxTurns());
+    Assertions.assertTrue(result.getTurnVariance() > 0);
+  }
+
+  @Test
+  void a_seed_gives_the_same_result_on_any_number_of_threads() {
+    SimulationResult one = new SimulationEngine(aBoard(), 6, 2)
+            .withPool(new ForkJoinPool(1))
+            .withBatchSize(64)
+            .run(2000, 42L);
+    SimulationResult four = new SimulationEngine(aBoard(), 6, 2)
+            .withPool(new ForkJoinPool(4))
+            .withBatchSize(64)
+            .run(2000, 42L);
+
+    for (int player = 0; player < 3; player++) {
+      Assertions.assertEquals(one.getWins(player), four.getWins(player));
+    }
+    Assertions.assertEquals(one.getMinTurns(), four.getMinTurns());
+    Assertions.assertEquals(one.getMaxTurns(), four.getMaxTurns());
+    Assertions.assertEquals(one.getMeanTurns(), four.getMeanTurns(), 1e-9);
+  }
+
+  @Test
+  void games_over_the_turn_limit_are_unfinished() {
+    SimulationResult result = new SimulationEngine(aBoard(), 6, 1)
+            .withMaxTurns(3)
+            .run(200, 1L);
+
+    Assertions.assertEquals(200, result.getUnfinishedGames());
+    Assertions.assertEquals(0, result.getWinProbability(0));
+  }
+
+  @Test
+  void changing_the_builder_later_does_not_change_the_engine() {
+    GameBuilder builder = aBoard();
+    SimulationEngine engine = new SimulationEngine(builder, 6, 2).withBatchSize(50);
+    builder.withPlayers(1).withMaxRoll(1);
+
+    SimulationResult result = engine.run(200, 3L);
+    Assertions.assertEquals(3, result.numberOfPlayers());
+    Assertions.assertEquals(1, builder.build().numberOfPlayers());
+  }
+
+  @Test
+  void boards_too_big_for_a_turn_table_cant_be_played_in_lockstep() {
+    // 600 x 600 squares times 12 rolls is just over the turn table limit
+    GameBuilder huge = new GameBuilder().withBoardSize(600).withSnakes(340_000, 2);
+    SimulationEngine engine = new SimulationEngine(huge, 6, 2);
+    Assertions.assertThrows(IllegalArgumentException.class, engine::withLockstep);
+    Assertions.assertThrows(IllegalArgumentException.class, () -> engine.withHeatmap(false));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> new BatchSimulator(huge, 12));
+
+    Assertions.assertEquals(10, engine.withMaxTurns(5).run(10, 1L).getUnfinishedGames());
+    Assertions.assertDoesNotThrow(() -> new SimulationEngine(huge.withBoardSize(590), 6, 2).withHeatmap(true));
+  }
+}
@@ -0,0 +1,74 @@
+package com.cm6123.snl.simulation;
+
+import com.cm6123.snl.Game;
+import com.cm6123.snl.GameEventListener;
+import com.cm6123.snl.TestBoards;
+import com.cm6123.snl.dice.DiceSet;
+import com.cm6123.snl.dice.RandomDiceFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class SquareHeatmapTest {
+
+  @Test
+  void heatmap_matches_the_events_of_the_same_games() {
+    BatchSimulator simulator = new BatchSimulator(TestBoards.aGame(2), 6, 1);
+    SquareHeatmap heatmap = simulator.newHeatmap(false);
+    SimulationResult result = simulator.run(200, new DiceSet(6, 1, new RandomDiceFactory(21L)), 10_000, heatmap);
+    Assertions.assertSame(heatmap, result.getHeatmap());
+
+    long[] landings = new long[64];
+    long[] triggers = new long[64];
+    GameEventListener counter = new GameEventListener() {
+      @Override
+      public void playerMoved(final int player, final int from, final int to) {
+        landings[to]++;
+      }
+
+      @Override
+      public void boostTaken(final int player, final int square) {
+        triggers[square]++;
+      }
+
+      @Override
+      public void snakeTaken(final int player, final int head, final int tail) {
+        triggers[head]++;
+      }
+
+      @Override
+      public void ladderTaken(final int player, final int foot, final int top) {
+        triggers[foot]++;
+      }
+    };
+    DiceSet dice = new DiceSet(6, 1, new RandomDiceFactory(21L));
+    for (int g = 0; g < 200; g++) {
+      Game game = TestBoards.aGame(2).build();
+      game.addListener(counter);
+      game.playUntilEnd(dice, 10_000);
+    }
+
+    Assertions.assertArrayEquals(landings, heatmap.getLandings());
+    Assertions.assertArrayEquals(triggers, heatmap.getTriggers());
+    Assertions.assertTrue(triggers[60] > 0);
+    Assertions.assertTrue(triggers[5] > 0);
+  }
+
+  @Test
+  void shared_and_striped_heatmaps_count_the_same() {
+    SimulationResult striped = new SimulationEngine(TestBoards.aGame(2), 6, 2)
+            .withHeatmap(false)
+            .withBatchSize(100)
+            .run(2000, 9L);
+    SimulationResult shared = new SimulationEngine(TestBoards.aGame(2), 6, 2)
+            .withHeatmap(true)
+            .withBatchSize(100)
+            .run(2000, 9L);
+
+    Assertions.assertFalse(striped.getHeatmap().isShared());
+    Assertions.assertTrue(shared.getHeatmap().isShared());
+    Assertions.assertArrayEquals(striped.getHeatmap().getLandings(), shared.getHeatmap().getLandings());
+    Assertions.assertArrayEquals(striped.getHeatmap().getTriggers(), shared.getHeatmap().getTriggers());
+    long wins = striped.getWins(0) + striped.getWins(1);
+    Assertions.assertEquals(wins, striped.getHeatmap().getLandings()[63]);
+  }
+}
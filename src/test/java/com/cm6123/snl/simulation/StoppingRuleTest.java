@@ -0,0 +1,81 @@
+package com.cm6123.snl.simulation;
+
+import com.cm6123.snl.TestBoards;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+class StoppingRuleTest {
+
+  @Test
+  void critical_values_match_the_normal_table() {
+    Assertions.assertEquals(1.959964, StoppingRule.criticalValue(0.95), 1e-6);
+    Assertions.assertEquals(2.575829, StoppingRule.criticalValue(0.99), 1e-6);
+    Assertions.assertEquals(3.290527, StoppingRule.criticalValue(0.999), 1e-6);
+  }
+
+  @Test
+  void stops_once_the_intervals_are_narrow_enough() {
+    StoppingRule rule = new StoppingRule()
+            .withMeanTurnsHalfWidth(0.5)
+            .withWinProbabilityHalfWidth(0.01)
+            .withMinGames(1000)
+            .withBatchesPerRound(4);
+    SimulationResult result = new SimulationEngine(TestBoards.aGame(2), 6, 1)
+            .withBatchSize(500)
+            .run(rule, 17L);
+
+    Assertions.assertTrue(rule.isMet(result));
+    Assertions.assertTrue(result.getMeanTurnsHalfWidth(0.95) <= 0.5);
+    Assertions.assertTrue(result.getWinProbabilityHalfWidth(0, 0.95) <= 0.01);
+    // one round fewer would not have been enough
+    Assertions.assertTrue(result.getGames() > 2000);
+    Assertions.assertEquals(0, result.getGames() % 2000);
+  }
+
+  @Test
+  void stops_at_the_game_limit() {
+    StoppingRule rule = new StoppingRule()
+            .withWinProbabilityHalfWidth(0.0001)
+            .withMaxGames(3000);
+    SimulationResult result = new SimulationEngine(TestBoards.aGame(2), 6, 1)
+            .withBatchSize(256)
+            .run(rule, 17L);
+
+    Assertions.assertEquals(3000, result.getGames());
+    Assertions.assertFalse(rule.isMet(result));
+  }
+
+  @Test
+  void a_seed_stops_at_the_same_place_on_any_number_of_threads() {
+    StoppingRule rule = new StoppingRule()
+            .withMeanTurnsHalfWidth(1)
+            .withMinGames(500)
+            .withBatchesPerRound(2);
+    SimulationResult one = new SimulationEngine(TestBoards.aGame(2), 6, 2)
+            .withPool(new ForkJoinPool(1))
+            .withBatchSize(100)
+            .run(rule, 3L);
+    SimulationResult four = new SimulationEngine(TestBoards.aGame(2), 6, 2)
+            .withPool(new ForkJoinPool(4))
+            .withBatchSize(100)
+            .run(rule, 3L);
+
+    Assertions.assertEquals(one.getGames(), four.getGames());
+    Assertions.assertEquals(one.getMeanTurns(), four.getMeanTurns(), 1e-9);
+  }
+
+  @Test
+  void a_player_who_never_wins_still_has_an_interval() {
+    SimulationResult result = new SimulationResult(2);
+    for (int game = 0; game < 100; game++) {
+      result.record(0, 10);
+    }
+    // Wilson: z^2 / (n + z^2) either side of 0 and 1
+    double z = StoppingRule.criticalValue(0.95);
+    Assertions.assertEquals(z * z / (100 + z * z) / 2, result.getWinProbabilityHalfWidth(1, 0.95), 1e-12);
+    Assertions.assertEquals(result.getWinProbabilityHalfWidth(1, 0.95), result.getWinProbabilityHalfWidth(0, 0.95), 1e-12);
+    Assertions.assertFalse(new StoppingRule().withMinGames(1).withWinProbabilityHalfWidth(0.01).isMet(result));
+  }
+}
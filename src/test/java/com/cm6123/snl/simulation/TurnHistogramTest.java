@@ -0,0 +1,84 @@
+package com.cm6123.snl.simulation;
+
+import com.cm6123.snl.GameBuilder;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+class TurnHistogramTest {
+
+  @Test
+  void small_values_give_exact_percentiles() {
+    TurnHistogram histogram = new TurnHistogram();
+    for (int value = 1; value <= 1000; value++) {
+      histogram.record(value);
+    }
+    Assertions.assertEquals(500, histogram.getP50());
+    Assertions.assertEquals(900, histogram.getP90());
+    Assertions.assertEquals(990, histogram.getP99());
+    Assertions.assertEquals(999, histogram.getP999());
+    Assertions.assertEquals(1, histogram.getMin());
+    Assertions.assertEquals(1000, histogram.getMax());
+    Assertions.assertEquals(500.5, histogram.getMean(), 1e-9);
+  }
+
+  @Test
+  void big_values_are_within_a_thousandth() {
+    SplittableRandom random = new SplittableRandom(5L);
+    long[] values = new long[100_000];
+    TurnHistogram histogram = new TurnHistogram();
+    for (int i = 0; i < values.length; i++) {
+      values[i] = random.nextLong(1, 5_000_000);
+      histogram.record(values[i]);
+    }
+    Arrays.sort(values);
+    for (double percentile : new double[]{50, 90, 99, 99.9}) {
+      long exact = values[(int) Math.ceil(percentile * values.length / 100) - 1];
+      long estimate = histogram.getValueAtPercentile(percentile);
+      Assertions.assertTrue(estimate >= exact);
+      Assertions.assertTrue(estimate - exact <= exact / 1024 + 1);
+    }
+  }
+
+  @Test
+  void buckets_cover_every_value_once() {
+    for (long value = 0; value < 100_000; value++) {
+      int bucket = TurnHistogram.bucketOf(value);
+      Assertions.assertTrue(value <= TurnHistogram.highestIn(bucket));
+      Assertions.assertTrue(bucket == 0 || value > TurnHistogram.highestIn(bucket - 1));
+    }
+  }
+
+  @Test
+  void merged_histograms_match_one_filled_with_everything() {
+    TurnHistogram all = new TurnHistogram();
+    TurnHistogram first = new TurnHistogram();
+    TurnHistogram second = new TurnHistogram();
+    for (int value = 0; value < 20_000; value += 7) {
+      all.record(value);
+      (value % 2 == 0 ? first : second).record(value);
+    }
+    first.add(second);
+    Assertions.assertEquals(all.getCount(), first.getCount());
+    Assertions.assertEquals(all.getP99(), first.getP99());
+    Assertions.assertEquals(all.getP50(), first.getP50());
+    Assertions.assertEquals(all.getMin(), first.getMin());
+  }
+
+  @Test
+  void simulations_report_percentiles_for_each_player() {
+    SimulationResult result = new SimulationEngine(new GameBuilder().withPlayers(2).withBoardSize(8), 6, 1)
+            .withBatchSize(50)
+            .run(500, 3L);
+
+    TurnHistogram turns = result.getTurnHistogram();
+    Assertions.assertEquals(500, turns.getCount());
+    Assertions.assertEquals(result.getMinTurns(), turns.getMin());
+    Assertions.assertEquals(result.getMaxTurns(), turns.getMax());
+    Assertions.assertTrue(result.getTurnPercentile(50) <= result.getTurnPercentile(99));
+    Assertions.assertEquals(result.getWins(0), result.getWinningTurnHistogram(0).getCount());
+    Assertions.assertEquals(result.getWins(1), result.getWinningTurnHistogram(1).getCount());
+  }
+}
@@ -0,0 +1,113 @@
+package com.cm6123.snl.simulation;
+
+import com.cm6123.snl.GameBuilder;
+import com.cm6123.snl.dice.DiceSet;
+import com.cm6123.snl.dice.RandomDiceFactory;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Times the scalar and Vector API lane kernels against each other, first on their own
+ * with the rolls made in advance and then inside a whole LaneSimulator run.
+ * Run it with the benchmarkKernels Gradle task; the optional argument is the number of games.
+ */
+public final class KernelBenchmark {
+
+  /**
+   * Lanes in a block.
+   */
+  private static final int LANES = 4096;
+  /**
+   * Turns timed in each kernel-only round.
+   */
+  private static final int TURNS = 2000;
+  /**
+   * Rounds run before timing starts.
+   */
+  private static final int WARM_UP = 5;
+  /**
+   * Rounds timed.
+   */
+  private static final int ROUNDS = 10;
+
+  private KernelBenchmark() {
+  }
+
+  /**
+   * @param args - optionally the number of games for the whole-run timing
+   */
+  public static void main(final String[] args) {
+    int games = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+    GameBuilder builder = new GameBuilder()
+            .withPlayers(4)
+            .withBoardSize(30)
+            .withSnakes(850, 12, 640, 40, 420, 99, 333, 150, 899, 500)
+            .withLadders(7, 300, 88, 460, 250, 700, 510, 800)
+            .withBoosts(20, 130, 610);
+    FlatLayout layout = new FlatLayout(builder, 12);
+    LaneKernel scalar = new ScalarLaneKernel();
+    LaneKernel vector = new VectorLaneKernel();
+
+    System.out.println("Vector species: " + jdk.incubator.vector.IntVector.SPECIES_PREFERRED);
+    double scalarSteps = timeKernel(scalar, layout);
+    double vectorSteps = timeKernel(vector, layout);
+    System.out.printf("Kernel only:  scalar %.1f M lane moves/s, vector %.1f M lane moves/s, speed-up %.2fx%n",
+            scalarSteps / 1e6, vectorSteps / 1e6, vectorSteps / scalarSteps);
+
+    double scalarGames = timeRun(new LaneSimulator(builder, 12, LANES, scalar), games);
+    double vectorGames = timeRun(new LaneSimulator(builder, 12, LANES, vector), games);
+    System.out.printf("Whole run:    scalar %.2f M games/s, vector %.2f M games/s, speed-up %.2fx%n",
+            scalarGames / 1e6, vectorGames / 1e6, vectorGames / scalarGames);
+  }
+
+  /**
+   * @param kernel - the kernel to time
+   * @param layout - the set-up to play
+   * @return the lane moves per second.
+   */
+  private static double timeKernel(final LaneKernel kernel, final FlatLayout layout) {
+    SplittableRandom random = new SplittableRandom(1L);
+    int[][] rolls = new int[TURNS][LANES];
+    for (int[] turn : rolls) {
+      for (int lane = 0; lane < LANES; lane++) {
+        turn[lane] = 2 + random.nextInt(6) + random.nextInt(6);
+      }
+    }
+    int[] squares = new int[LANES];
+    int[] roll = new int[LANES];
+    int[] finishedAt = new int[LANES];
+    long best = Long.MAX_VALUE;
+    for (int round = 0; round < WARM_UP + ROUNDS; round++) {
+      long began = System.nanoTime();
+      for (int turn = 0; turn < TURNS; turn++) {
+        if (turn % 50 == 0) {
+          // start the block again so most lanes are always live
+          Arrays.fill(squares, 0);
+          Arrays.fill(finishedAt, 0);
+        }
+        System.arraycopy(rolls[turn], 0, roll, 0, LANES);
+        kernel.step(layout.table(), layout.rolls(), layout.last(), squares, roll, finishedAt, turn + 1, LANES);
+      }
+      long took = System.nanoTime() - began;
+      if (round >= WARM_UP) {
+        best = Math.min(best, took);
+      }
+    }
+    return (double) TURNS * LANES / (best / 1e9);
+  }
+
+  /**
+   * @param simulator - the simulator to time
+   * @param games - how many games to play
+   * @return the games played per second.
+   */
+  private static double timeRun(final LaneSimulator simulator, final int games) {
+    DiceSet warm = new DiceSet(6, 2, new RandomDiceFactory(1L));
+    simulator.run(Math.max(LANES, games / 10), warm, 10_000);
+    DiceSet dice = new DiceSet(6, 2, new RandomDiceFactory(2L));
+    long began = System.nanoTime();
+    simulator.run(games, dice, 10_000);
+    return games / ((System.nanoTime() - began) / 1e9);
+  }
+}
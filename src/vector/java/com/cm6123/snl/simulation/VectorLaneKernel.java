@@ -0,0 +1,59 @@
+package com.cm6123.snl.simulation;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * LaneKernel using the Vector API: each vector of lanes works out its table indexes,
+ * gathers the destinations for the games still going and flags the ones that finished.
+ * Needs --add-modules jdk.incubator.vector at compile and run time.
+ */
+final class VectorLaneKernel implements LaneKernel {
+
+  /**
+   * The widest int vector the CPU handles well.
+   */
+  private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+  @Override
+  public int step(final int[] table,
+                  final int rolls,
+                  final int last,
+                  final int[] squares,
+                  final int[] roll,
+                  final int[] finishedAt,
+                  final int turn,
+                  final int count) {
+    int finished = 0;
+    int lane = 0;
+    int upper = SPECIES.loopBound(count);
+    for (; lane < upper; lane += SPECIES.length()) {
+      IntVector done = IntVector.fromArray(SPECIES, finishedAt, lane);
+      VectorMask<Integer> live = done.compare(VectorOperators.EQ, 0);
+      IntVector from = IntVector.fromArray(SPECIES, squares, lane);
+      // the rolls are used up, so their slots hold the table indexes for the gather;
+      // finished lanes still index inside the table, so the gather needs no mask
+      from.mul(rolls).add(IntVector.fromArray(SPECIES, roll, lane)).sub(1).intoArray(roll, lane);
+      IntVector to = from.blend(IntVector.fromArray(SPECIES, table, 0, roll, lane), live);
+      to.intoArray(squares, lane);
+      VectorMask<Integer> won = to.compare(VectorOperators.GE, last).and(live);
+      if (won.anyTrue()) {
+        done.blend(turn, won).intoArray(finishedAt, lane);
+        finished += won.trueCount();
+      }
+    }
+    for (; lane < count; lane++) {
+      if (finishedAt[lane] == 0) {
+        int to = table[squares[lane] * rolls + roll[lane] - 1];
+        squares[lane] = to;
+        if (to >= last) {
+          finishedAt[lane] = turn;
+          finished++;
+        }
+      }
+    }
+    return finished;
+  }
+}